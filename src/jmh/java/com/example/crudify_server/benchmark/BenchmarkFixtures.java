@@ -0,0 +1,100 @@
+package com.example.crudify_server.benchmark;
+
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.entity.User;
+import com.example.crudify_server.repository.RefreshTokenRepository;
+import com.example.crudify_server.service.AccessTokenDenylist;
+import com.example.crudify_server.service.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires services the way the application context does, minus the database: the denylist starts
+ * empty, so every token takes the Bloom filter's fast "not revoked" path as in production.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String JWT_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    public static final long JWT_EXPIRATION_MS = 900_000L;
+
+    private BenchmarkFixtures() {}
+
+    public static JwtService jwtService(MeterRegistry meterRegistry) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaximumSize", 10_000L);
+        ReflectionTestUtils.setField(jwtService, "accessTokenDenylist", emptyDenylist());
+        ReflectionTestUtils.setField(jwtService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        return jwtService;
+    }
+
+    public static JwtService jwtService() {
+        return jwtService(new SimpleMeterRegistry());
+    }
+
+    public static AccessTokenDenylist emptyDenylist() {
+        RefreshTokenRepository repository = (RefreshTokenRepository) Proxy.newProxyInstance(
+                RefreshTokenRepository.class.getClassLoader(),
+                new Class<?>[]{RefreshTokenRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() == List.class) {
+                        return List.of();
+                    }
+                    if (method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        AccessTokenDenylist denylist = new AccessTokenDenylist();
+        ReflectionTestUtils.setField(denylist, "refreshTokenRepository", repository);
+        ReflectionTestUtils.setField(denylist, "replicaRoutingContext", new ReplicaRoutingContext());
+        ReflectionTestUtils.setField(denylist, "jwtExpiration", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(denylist, "expectedEntries", 100_000L);
+        ReflectionTestUtils.setField(denylist, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.invokeMethod(denylist, "init");
+        return denylist;
+    }
+
+    public static User user() {
+        User user = new User("benchmark", "benchmark@example.com", "encodedPassword");
+        user.setId(42L);
+        user.setRole(User.Role.USER);
+        return user;
+    }
+
+    public static List<Product> products(int count) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Product product = new Product("Product " + i, "Description of product " + i,
+                    BigDecimal.valueOf(1999 + i, 2), i % 100);
+            product.setId((long) i);
+            product.setVersion(1L);
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            products.add(product);
+        }
+        return products;
+    }
+
+    // Same defaults Spring Boot's JacksonAutoConfiguration applies to the MVC message converter
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+    }
+}
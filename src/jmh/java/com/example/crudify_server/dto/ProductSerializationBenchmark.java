@@ -0,0 +1,51 @@
+package com.example.crudify_server.dto;
+
+import com.example.crudify_server.benchmark.BenchmarkFixtures;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Product listing bodies: a single product, a default page (50) and a maximum page (500)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<ProductResponse> products;
+
+    @Setup
+    public void setUp() {
+        writer = BenchmarkFixtures.objectMapper().writerFor(new TypeReference<List<ProductResponse>>() {});
+        products = BenchmarkFixtures.products(size).stream()
+                .map(product -> new ProductResponse(product.getId(), product.getName(), product.getDescription(),
+                        product.getPrice(), product.getQuantity(), product.getVersion(),
+                        product.getCreatedAt(), product.getUpdatedAt()))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writeProductList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(products);
+    }
+}
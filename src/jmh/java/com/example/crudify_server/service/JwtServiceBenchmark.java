@@ -0,0 +1,71 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.benchmark.BenchmarkFixtures;
+import com.example.crudify_server.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification. The {@code Cached} variants are the steady state, where a client
+ * keeps presenting the same token; the {@code Uncached} ones pay for the HMAC check and claims parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private Cache<?, ?> verifiedTokens;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService();
+        verifiedTokens = (Cache<?, ?>) ReflectionTestUtils.getField(jwtService, "verifiedTokens");
+        user = BenchmarkFixtures.user();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        verifiedTokens.invalidateAll();
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValidCached() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean isTokenValidUncached() {
+        verifiedTokens.invalidateAll();
+        return jwtService.isTokenValid(token, user);
+    }
+}
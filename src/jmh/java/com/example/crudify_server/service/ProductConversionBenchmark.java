@@ -0,0 +1,41 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.benchmark.BenchmarkFixtures;
+import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity to response mapping, run once per row in every page, batch and export
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class ProductConversionBenchmark {
+
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        productService = new ProductService();
+        product = BenchmarkFixtures.products(1).get(0);
+    }
+
+    @Benchmark
+    public ProductResponse convertToResponse() {
+        return productService.convertToResponse(product);
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.crudify_server.config;
+
+import com.example.crudify_server.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limits on the unauthenticated, BCrypt-bound auth endpoints, per client IP and per
+ * username from that IP, so a single client cannot monopolise the hashing pool. The username buckets
+ * are scoped to the IP because they are drawn before the password is checked; a global one would let
+ * anyone lock a user out by flooding their name. Runs ahead of {@link JwtAuthenticationFilter};
+ * rejected requests get 429 with {@code Retry-After}.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+    
+    static final String LOGIN_PATH = "/api/auth/login";
+    static final String REGISTER_PATH = "/api/auth/register";
+    
+    // Auth bodies are tiny; anything larger is passed through limited by IP only
+    private static final int MAX_BUFFERED_BODY_BYTES = 8 * 1024;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.rate-limit.maximum-keys:100000}")
+    private long maximumKeys;
+    
+    // Header a trusted reverse proxy sets to the client address (e.g. X-Real-IP); empty keys on the
+    // connection's remote address, which server.forward-headers-strategy can rewrite instead
+    @Value("${app.rate-limit.client-ip-header:}")
+    private String clientIpHeader;
+    
+    // A capacity of 0 turns that limit off
+    @Value("${app.rate-limit.login.ip.capacity:20}")
+    private int loginIpCapacity;
+    
+    @Value("${app.rate-limit.login.ip.per-minute:20}")
+    private int loginIpPerMinute;
+    
+    @Value("${app.rate-limit.login.username.capacity:5}")
+    private int loginUsernameCapacity;
+    
+    @Value("${app.rate-limit.login.username.per-minute:5}")
+    private int loginUsernamePerMinute;
+    
+    @Value("${app.rate-limit.register.ip.capacity:10}")
+    private int registerIpCapacity;
+    
+    @Value("${app.rate-limit.register.ip.per-minute:10}")
+    private int registerIpPerMinute;
+    
+    @Value("${app.rate-limit.register.username.capacity:3}")
+    private int registerUsernameCapacity;
+    
+    @Value("${app.rate-limit.register.username.per-minute:3}")
+    private int registerUsernamePerMinute;
+    
+    private Map<String, EndpointLimits> limits;
+    
+    @PostConstruct
+    void init() {
+        limits = Map.of(
+                LOGIN_PATH, new EndpointLimits(
+                        limiter(loginIpCapacity, loginIpPerMinute),
+                        limiter(loginUsernameCapacity, loginUsernamePerMinute)),
+                REGISTER_PATH, new EndpointLimits(
+                        limiter(registerIpCapacity, registerIpPerMinute),
+                        limiter(registerUsernameCapacity, registerUsernamePerMinute)));
+    }
+    
+    private TokenBucketRateLimiter limiter(int capacity, int perMinute) {
+        return capacity > 0 ? new TokenBucketRateLimiter(capacity, perMinute, maximumKeys) : null;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !limits.containsKey(path(request));
+    }
+    
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        
+        EndpointLimits endpoint = limits.get(path(request));
+        String clientIp = clientIp(request);
+        long waitNanos = endpoint.byIp() != null ? endpoint.byIp().tryAcquire(clientIp) : 0;
+        
+        if (waitNanos == 0 && endpoint.byUsername() != null) {
+            byte[] prefix = request.getInputStream().readNBytes(MAX_BUFFERED_BODY_BYTES + 1);
+            if (prefix.length <= MAX_BUFFERED_BODY_BYTES) {
+                String username = readUsername(prefix);
+                if (username != null) {
+                    waitNanos = endpoint.byUsername().tryAcquire(clientIp + ' ' + username);
+                }
+            }
+            request = new BufferedBodyRequest(request, prefix);
+        }
+        
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private String clientIp(HttpServletRequest request) {
+        String value = clientIpHeader.isEmpty() ? null : request.getHeader(clientIpHeader);
+        if (value == null || value.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        // Proxies append to list headers such as X-Forwarded-For; only the last entry is our proxy's
+        return value.substring(value.lastIndexOf(',') + 1).trim();
+    }
+    
+    private String readUsername(byte[] body) {
+        try {
+            return objectMapper.readTree(body).path("username").textValue();
+        } catch (IOException e) {
+            // Malformed bodies are left to the controller's validation
+            return null;
+        }
+    }
+    
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        GlobalExceptionHandler.ErrorResponse errorResponse = new GlobalExceptionHandler.ErrorResponse(
+                "Too many requests",
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                LocalDateTime.now(),
+                Map.of("error", "Rate limit exceeded; retry after " + retryAfterSeconds + " seconds")
+        );
+        
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+    
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+    
+    private record EndpointLimits(TokenBucketRateLimiter byIp, TokenBucketRateLimiter byUsername) {
+    }
+    
+    // Replays the bytes read for the username check, then whatever is left of the original body
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        
+        private final ServletInputStream body;
+        
+        private BufferedBodyRequest(HttpServletRequest request, byte[] prefix) throws IOException {
+            super(request);
+            this.body = new PrefixedInputStream(new ByteArrayInputStream(prefix), request.getInputStream());
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+    
+    private static final class PrefixedInputStream extends ServletInputStream {
+        
+        private final ByteArrayInputStream prefix;
+        private final ServletInputStream remainder;
+        
+        private PrefixedInputStream(ByteArrayInputStream prefix, ServletInputStream remainder) {
+            this.prefix = prefix;
+            this.remainder = remainder;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            return prefix.available() > 0 ? prefix.read() : remainder.read();
+        }
+        
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            return prefix.available() > 0 ? prefix.read(buffer, offset, length) : remainder.read(buffer, offset, length);
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return prefix.available() == 0 && remainder.isFinished();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return prefix.available() > 0 || remainder.isReady();
+        }
+        
+        // Non-blocking reads are driven by the container's stream; the buffered bytes are always
+        // ready, so they are handed out on the first callback, including a bare onAllDataRead when
+        // the prefix already held the whole body
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            remainder.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    readListener.onDataAvailable();
+                }
+                
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (prefix.available() > 0) {
+                        readListener.onDataAvailable();
+                    }
+                    if (isFinished()) {
+                        readListener.onAllDataRead();
+                    }
+                }
+                
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+    }
+}
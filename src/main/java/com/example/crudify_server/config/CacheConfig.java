@@ -0,0 +1,55 @@
+package com.example.crudify_server.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import java.time.Duration;
+
+// Both advisors default to the lowest precedence, which leaves their nesting unspecified. The cache
+// advice is pinned outside the transaction so @CachePut/@CacheEvict act only after a commit.
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@EnableTransactionManagement(order = Ordered.LOWEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    @Value("${app.cache.products.maximum-size:10000}")
+    private long productsMaximumSize;
+
+    @Value("${app.cache.products.ttl-seconds:300}")
+    private long productsTtlSeconds;
+
+    @Value("${app.jwt.user-details-cache.maximum-size:10000}")
+    private long userDetailsMaximumSize;
+
+    @Value("${app.jwt.user-details-cache.ttl-seconds:30}")
+    private long userDetailsTtlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Missing products are not cached; a later create must be visible immediately
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRODUCTS_CACHE, Caffeine.newBuilder()
+                .maximumSize(productsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(productsTtlSeconds))
+                .recordStats()
+                .build());
+        // Short TTL bounds how long a role change or deleted account can go unnoticed
+        cacheManager.registerCustomCache(USER_DETAILS_CACHE, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(userDetailsTtlSeconds))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
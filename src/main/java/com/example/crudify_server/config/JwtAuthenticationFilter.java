@@ -1,11 +1,16 @@
 package com.example.crudify_server.config;
 
 import com.example.crudify_server.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -28,6 +33,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Lazy
     private UserDetailsService userDetailsService;
     
+    @Autowired
+    private CacheManager cacheManager;
+    
+    // Off: the principal comes from the token's claims alone. On: roles are re-read at most once per TTL.
+    @Value("${app.jwt.user-details-cache.enabled:false}")
+    private boolean userDetailsCacheEnabled;
+    
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -45,12 +57,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        Claims claims;
+        try {
+            claims = jwtService.verify(jwt);
+        } catch (JwtException e) {
+            // Bad or expired token: continue unauthenticated and let authorization reject the request
+            filterChain.doFilter(request, response);
+            return;
+        }
+        username = claims.getSubject();
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = resolveUserDetails(username, claims);
             
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -65,4 +85,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+    
+    private UserDetails resolveUserDetails(String username, Claims claims) {
+        if (userDetailsCacheEnabled) {
+            Cache cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
+            UserDetails cached = cache.get(username, UserDetails.class);
+            if (cached == null) {
+                cached = userDetailsService.loadUserByUsername(username);
+                cache.put(username, cached);
+            }
+            return cached;
+        }
+        UserDetails fromClaims = jwtService.toUserDetails(claims);
+        // Tokens issued before the id and role claims existed still need the lookup
+        return fromClaims != null ? fromClaims : userDetailsService.loadUserByUsername(username);
+    }
+}
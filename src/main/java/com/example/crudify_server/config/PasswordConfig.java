@@ -1,15 +1,230 @@
 package com.example.crudify_server.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class PasswordConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(PasswordConfig.class);
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String PBKDF2 = "pbkdf2";
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 16;
+    static final int MIN_PBKDF2_ITERATIONS = 100_000;
+
+    private static final int CALIBRATION_BCRYPT_STRENGTH = 10;
+    private static final int CALIBRATION_PBKDF2_ITERATIONS = 50_000;
+
+    @Value("${app.auth.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    // 0 calibrates the cost at startup against target-hash-ms
+    @Value("${app.auth.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${app.auth.password.pbkdf2-iterations:0}")
+    private int pbkdf2Iterations;
+
+    @Value("${app.auth.password.target-hash-ms:250}")
+    private long targetHashMs;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        boolean strengthPinned = bcryptStrength > 0;
+        int strength = strengthPinned ? bcryptStrength
+                : BCRYPT.equals(algorithm) ? calibrateBCryptStrength() : MIN_BCRYPT_STRENGTH;
+        int iterations = pbkdf2Iterations > 0 ? pbkdf2Iterations
+                : PBKDF2.equals(algorithm) ? calibratePbkdf2Iterations() : MIN_PBKDF2_ITERATIONS;
+        boolean costPinned = BCRYPT.equals(algorithm) ? strengthPinned : pbkdf2Iterations > 0;
+        log.info("Password hashing: {} (bcrypt strength {}, pbkdf2 iterations {})", algorithm, strength, iterations);
+        if (!costPinned) {
+            String property = BCRYPT.equals(algorithm) ? "bcrypt-strength=" + strength : "pbkdf2-iterations=" + iterations;
+            log.warn("The {} cost was calibrated on this node; set app.auth.password.{} so every node and "
+                    + "restart uses the same cost", algorithm, property);
+        }
+        return new TimedPasswordEncoder(passwordEncoder(algorithm, strength, iterations, costPinned), meterRegistry);
+    }
+
+    /**
+     * @param downgrade also re-encode hashes costlier than the configured cost; only safe when the
+     *                  cost is pinned, or nodes calibrated differently would keep rewriting each
+     *                  other's hashes
+     */
+    static PasswordEncoder passwordEncoder(String algorithm, int bcryptStrength, int pbkdf2Iterations,
+                                           boolean downgrade) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new TargetStrengthBCryptPasswordEncoder(bcryptStrength, downgrade));
+        encoders.put(PBKDF2, new IterationCountingPbkdf2PasswordEncoder(pbkdf2Iterations, downgrade));
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+        return encoder;
+    }
+
+    // Each BCrypt strength step doubles the work, so one timed hash is enough to extrapolate
+    private int calibrateBCryptStrength() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_BCRYPT_STRENGTH);
+        probe.encode("warm-up");
+        long millis = Math.max(1, timeMillis(() -> probe.encode("calibration")));
+        int strength = CALIBRATION_BCRYPT_STRENGTH
+                + (int) Math.round(Math.log((double) targetHashMs / millis) / Math.log(2));
+        return Math.max(MIN_BCRYPT_STRENGTH, Math.min(MAX_BCRYPT_STRENGTH, strength));
+    }
+
+    private int calibratePbkdf2Iterations() {
+        PasswordEncoder probe = IterationCountingPbkdf2PasswordEncoder.pbkdf2(CALIBRATION_PBKDF2_ITERATIONS);
+        probe.encode("warm-up");
+        long millis = Math.max(1, timeMillis(() -> probe.encode("calibration")));
+        long iterations = CALIBRATION_PBKDF2_ITERATIONS * targetHashMs / millis;
+        return (int) Math.max(MIN_PBKDF2_ITERATIONS, Math.min(Integer.MAX_VALUE, iterations));
+    }
+
+    private static long timeMillis(Runnable action) {
+        long start = System.nanoTime();
+        action.run();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Flags stored hashes for re-encoding when their cost is below the configured one or, with
+     * {@code downgrade}, above it, so lowering a pinned cost takes effect too.
+     */
+    static final class TargetStrengthBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private final int strength;
+        private final boolean downgrade;
+
+        TargetStrengthBCryptPasswordEncoder(int strength, boolean downgrade) {
+            super(strength);
+            this.strength = strength;
+            this.downgrade = downgrade;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+                return false;
+            }
+            try {
+                int storedStrength = Integer.parseInt(encodedPassword.substring(4, 6));
+                return storedStrength < strength || (downgrade && storedStrength > strength);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Spring's PBKDF2 hashes do not record their iteration count, so a hash only verifies with the
+     * count it was made with. This one stores it as {@code <iterations>$<hash>}, verifies each hash
+     * with its own count and flags hashes made with another count for re-encoding the way
+     * {@link TargetStrengthBCryptPasswordEncoder} does. Hashes without a count predate the format
+     * and are checked with the configured count.
+     */
+    static final class IterationCountingPbkdf2PasswordEncoder implements PasswordEncoder {
+
+        private final int iterations;
+        private final boolean downgrade;
+        private final PasswordEncoder encoder;
+
+        IterationCountingPbkdf2PasswordEncoder(int iterations, boolean downgrade) {
+            this.iterations = iterations;
+            this.downgrade = downgrade;
+            this.encoder = pbkdf2(iterations);
+        }
+
+        static PasswordEncoder pbkdf2(int iterations) {
+            return new Pbkdf2PasswordEncoder("", 16, iterations,
+                    Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return iterations + "$" + encoder.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (encodedPassword == null) {
+                return false;
+            }
+            int storedIterations = storedIterations(encodedPassword);
+            if (storedIterations < 0) {
+                return encoder.matches(rawPassword, encodedPassword);
+            }
+            String hash = encodedPassword.substring(encodedPassword.indexOf('$') + 1);
+            PasswordEncoder stored = storedIterations == iterations ? encoder : pbkdf2(storedIterations);
+            return stored.matches(rawPassword, hash);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            if (encodedPassword == null) {
+                return false;
+            }
+            int storedIterations = storedIterations(encodedPassword);
+            return storedIterations < iterations || (downgrade && storedIterations > iterations);
+        }
+
+        // -1 for a hash without a recorded count
+        private static int storedIterations(String encodedPassword) {
+            int separator = encodedPassword.indexOf('$');
+            if (separator <= 0) {
+                return -1;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(0, separator));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    // Times the expensive hashing calls, tagged by operation
+    static final class TimedPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+        private final Timer encodeTimer;
+        private final Timer matchesTimer;
+
+        TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+            this.delegate = delegate;
+            this.encodeTimer = Timer.builder("auth.password.hash")
+                    .tag("operation", "encode")
+                    .register(meterRegistry);
+            this.matchesTimer = Timer.builder("auth.password.hash")
+                    .tag("operation", "matches")
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return encodeTimer.record(() -> delegate.encode(rawPassword));
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,19 +1,26 @@
 package com.example.crudify_server.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.logout.LogoutFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -28,18 +35,31 @@ public class SecurityConfig {
     @Lazy
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    @Lazy
+    private AuthRateLimitFilter authRateLimitFilter;
+
     @Autowired
     @Lazy
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    @Lazy
+    private UserDetailsPasswordService userDetailsPasswordService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private Environment environment;
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-encodes stored hashes on login when the algorithm or cost has changed
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
@@ -53,12 +73,20 @@ public class SecurityConfig {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-            .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/products/**").authenticated()
-                .anyRequest().authenticated()
-            )
+            .authorizeHttpRequests(authz -> {
+                authz.requestMatchers("/api/auth/**").permitAll();
+                // Probes and the scrape are open only on the separate management port, never on the API port
+                if (ManagementPortType.get(environment) == ManagementPortType.DIFFERENT) {
+                    authz.requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class))
+                            .permitAll();
+                }
+                authz.requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                    .requestMatchers("/api/products/**").authenticated()
+                    .anyRequest().authenticated();
+            })
             .authenticationProvider(authenticationProvider())
+            // Rate limiting goes ahead of logout and JWT handling, so rejected requests cost nothing further
+            .addFilterBefore(authRateLimitFilter, LogoutFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -80,7 +108,13 @@ public class SecurityConfig {
             "Authorization", 
             "Content-Type", 
             "X-Requested-With",
-            "Accept"
+            "Accept",
+            "If-None-Match"
+        ));
+        configuration.setExposedHeaders(Arrays.asList(
+            "X-Next-Cursor",             // Keyset pagination cursor for GET /api/products
+            "ETag",                      // Validators for conditional GETs
+            "Retry-After"                // Backoff hint on 429 and 503 responses
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L); // Cache preflight response for 1 hour
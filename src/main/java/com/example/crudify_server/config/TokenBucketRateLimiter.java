@@ -0,0 +1,65 @@
+package com.example.crudify_server.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets in their GCRA form: a bucket is one {@link AtomicLong} holding the instant it
+ * will be full again, advanced by CAS, so checks never lock. Buckets sit in a size-bounded Caffeine
+ * cache and expire once idle for a full refill, when dropping them loses nothing.
+ */
+final class TokenBucketRateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    TokenBucketRateLimiter(int capacity, int refillPerMinute, long maximumKeys) {
+        this(capacity, refillPerMinute, maximumKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, int refillPerMinute, long maximumKeys, LongSupplier clock) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill rate must be positive");
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.burstNanos = intervalNanos * capacity;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Takes a token for {@code key}.
+     *
+     * @return 0 if one was available, otherwise the nanoseconds until the next one is
+     */
+    long tryAcquire(String key) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long estimatedSize() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
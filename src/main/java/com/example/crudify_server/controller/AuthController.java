@@ -2,13 +2,20 @@ package com.example.crudify_server.controller;
 
 import com.example.crudify_server.dto.AuthRequest;
 import com.example.crudify_server.dto.AuthResponse;
+import com.example.crudify_server.dto.RefreshTokenRequest;
 import com.example.crudify_server.dto.RegisterRequest;
+import com.example.crudify_server.exception.DuplicateUserException;
+import com.example.crudify_server.service.PasswordHashingService;
+import com.example.crudify_server.service.RefreshTokenService;
 import com.example.crudify_server.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -16,26 +23,49 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    // Both endpoints are dominated by BCrypt; they run on the hashing pool and free the request thread
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
-        try {
-            AuthResponse response = userService.register(request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest()
-                    .body(new ErrorResponse(e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request) {
+        return passwordHashingService.submit(() -> userService.register(request))
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof DuplicateUserException duplicate) {
+                        // Typed 409 from GlobalExceptionHandler
+                        throw duplicate;
+                    }
+                    return ResponseEntity.badRequest().body(new ErrorResponse(cause.getMessage()));
+                });
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
-        try {
-            AuthResponse response = userService.authenticate(request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest()
-                    .body(new ErrorResponse("Invalid username or password"));
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody AuthRequest request) {
+        return passwordHashingService.submit(() -> userService.authenticate(request))
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> ResponseEntity.badRequest()
+                        .body(new ErrorResponse("Invalid username or password")));
+    }
+    
+    // No password hashing involved, so these stay on the request thread
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(refreshTokenService.rotate(request.getRefreshToken()));
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
     
     // Simple error response class
@@ -1,33 +1,196 @@
 package com.example.crudify_server.controller;
 
+import com.example.crudify_server.dto.BatchDeleteResponse;
+import com.example.crudify_server.dto.BulkProductResponse;
+import com.example.crudify_server.dto.ProductBatchResponse;
+import com.example.crudify_server.dto.ProductImportResponse;
+import com.example.crudify_server.dto.ProductPage;
 import com.example.crudify_server.dto.ProductRequest;
 import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.dto.StockAdjustmentRequest;
+import com.example.crudify_server.exception.BadRequestException;
+import com.example.crudify_server.service.ProductChangeFeedService;
+import com.example.crudify_server.service.ProductImportService;
 import com.example.crudify_server.service.ProductService;
+import com.example.crudify_server.service.StockWriteBehindService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    
+    private static final String CSV_HEADER = "id,name,description,price,quantity,created_at,updated_at";
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private StockWriteBehindService stockWriteBehindService;
+    
+    @Autowired
+    private ProductChangeFeedService productChangeFeedService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> getAllProducts(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limit) {
+        ProductPage page = productService.getAllProducts(cursor, limit);
+        List<ProductResponse> products = withPendingStock(page.getItems());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(collectionETag(products, page.getNextCursor()));
+        if (page.hasNext()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(products);
+    }
+    
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(withPendingStock(productService.getProductsByIds(ids)));
+    }
+    
+    // Same lookup for id lists too long for a query string
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIdsInBody(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(withPendingStock(productService.getProductsByIds(ids)));
+    }
+    
+    // One mapping, so a wildcard or missing Accept header gets NDJSON instead of two equally good matches
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean csv;
+        if (format != null) {
+            if (!"csv".equalsIgnoreCase(format) && !"ndjson".equalsIgnoreCase(format)) {
+                throw new BadRequestException("Unsupported export format: " + format);
+            }
+            csv = "csv".equalsIgnoreCase(format);
+        } else {
+            csv = prefersCsv(accept);
+        }
+        return csv ? exportProductsAsCsv() : exportProductsAsNdjson();
+    }
+    
+    private ResponseEntity<StreamingResponseBody> exportProductsAsNdjson() {
+        StreamingResponseBody body = outputStream -> productService.exportProducts(product -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(product));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> exportProductsAsCsv() {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            productService.exportProducts(product -> {
+                try {
+                    writer.write(toCsvRow(product));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.csv\"")
+                .body(body);
+    }
+    
+    // CSV only when the client ranks it strictly above NDJSON; wildcards count for NDJSON
+    private static boolean prefersCsv(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return false;
+        }
+        MediaType csv = MediaType.parseMediaType(TEXT_CSV_VALUE);
+        double csvQuality = 0;
+        double ndjsonQuality = 0;
+        for (MediaType type : MediaType.parseMediaTypes(accept)) {
+            if (type.includes(MediaType.APPLICATION_NDJSON)) {
+                ndjsonQuality = Math.max(ndjsonQuality, type.getQualityValue());
+            } else if (type.includes(csv)) {
+                csvQuality = Math.max(csvQuality, type.getQualityValue());
+            }
+        }
+        return csvQuality > ndjsonQuality;
+    }
+    
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long resumeAfter;
+        try {
+            resumeAfter = lastEventId == null || lastEventId.isBlank() ? null : Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            // An error body cannot be rendered as text/event-stream
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productChangeFeedService.subscribe(resumeAfter));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        // Revalidation only needs the version column, not the full row, unless unflushed stock changes
+        // can have moved the quantity without it
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null && !stockWriteBehindService.isEnabled()) {
+            Optional<Long> version = productService.getProductVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (webRequest.checkNotModified(productETag(version.get()))) {
+                return null;
+            }
+        }
+        
         return productService.getProductById(id)
-                .map(product -> ResponseEntity.ok(product))
+                .map(this::withPendingStock)
+                .map(product -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (product.getVersion() != null) {
+                        response.eTag(productETag(product));
+                    }
+                    return response.body(product);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -37,6 +200,20 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
     
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkProductResponse> createProducts(@RequestBody List<ProductRequest> requests) {
+        BulkProductResponse response = productService.createProducts(requests);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ProductImportResponse> importProducts(InputStream body) {
+        // The body is handed to COPY as a stream and never buffered in full
+        ProductImportResponse response = productImportService.importCsv(
+                new InputStreamReader(body, StandardCharsets.UTF_8));
+        return ResponseEntity.ok(response);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable Long id, 
                                                         @Valid @RequestBody ProductRequest request) {
@@ -45,21 +222,102 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<ProductResponse> adjustStock(@PathVariable Long id,
+                                                      @Valid @RequestBody StockAdjustmentRequest request) {
+        Optional<ProductResponse> adjusted = stockWriteBehindService.isEnabled()
+                ? stockWriteBehindService.adjust(id, request.getDelta())
+                : productService.adjustStock(id, request.getDelta());
+        return adjusted
+                .map(product -> ResponseEntity.ok(product))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         boolean deleted = productService.deleteProduct(id);
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
     
+    @DeleteMapping
+    public ResponseEntity<BatchDeleteResponse> deleteProducts(@RequestParam List<Long> ids) {
+        BatchDeleteResponse response = productService.deleteProducts(ids);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name) {
-        List<ProductResponse> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name,
+                                                                @RequestParam(required = false) Integer limit) {
+        List<ProductResponse> products = withPendingStock(productService.searchProductsByName(name, limit));
+        return ResponseEntity.ok()
+                .eTag(collectionETag(products, null))
+                .body(products);
     }
     
     @GetMapping("/quantity")
     public ResponseEntity<List<ProductResponse>> getProductsWithMinimumQuantity(@RequestParam Integer min) {
-        List<ProductResponse> products = productService.getProductsWithMinimumQuantity(min);
-        return ResponseEntity.ok(products);
+        List<ProductResponse> products = withPendingStock(productService.getProductsWithMinimumQuantity(min));
+        return ResponseEntity.ok()
+                .eTag(collectionETag(products, null))
+                .body(products);
+    }
+    
+    // In write-behind mode the persisted quantity lags admitted stock changes by up to one flush interval
+    private ProductResponse withPendingStock(ProductResponse product) {
+        return stockWriteBehindService.isEnabled() ? stockWriteBehindService.applyPending(product) : product;
+    }
+    
+    private List<ProductResponse> withPendingStock(List<ProductResponse> products) {
+        return stockWriteBehindService.isEnabled() ? stockWriteBehindService.applyPending(products) : products;
+    }
+    
+    private ProductBatchResponse withPendingStock(ProductBatchResponse batch) {
+        batch.setItems(withPendingStock(batch.getItems()));
+        return batch;
+    }
+    
+    // Strong validator: every write bumps the @Version column
+    private static String productETag(Long version) {
+        return "\"" + version + "\"";
+    }
+    
+    // Write-behind stock changes only bump the version once flushed, so the effective quantity is part of it
+    private String productETag(ProductResponse product) {
+        return stockWriteBehindService.isEnabled()
+                ? "\"" + product.getVersion() + "-" + product.getQuantity() + "\""
+                : productETag(product.getVersion());
+    }
+    
+    // Weak validator over the ids, versions and effective (write-behind) quantities in the result;
+    // Spring answers a match with 304 before serializing
+    private static String collectionETag(List<ProductResponse> products, String nextCursor) {
+        StringBuilder fingerprint = new StringBuilder(products.size() * 20);
+        for (ProductResponse product : products) {
+            fingerprint.append(product.getId()).append(':').append(product.getVersion())
+                    .append(':').append(product.getQuantity()).append(';');
+        }
+        fingerprint.append(nextCursor);
+        return "W/\"" + DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    
+    private static String toCsvRow(ProductResponse product) {
+        return String.join(",",
+                String.valueOf(product.getId()),
+                csvField(product.getName()),
+                csvField(product.getDescription()),
+                product.getPrice().toPlainString(),
+                String.valueOf(product.getQuantity()),
+                String.valueOf(product.getCreatedAt()),
+                String.valueOf(product.getUpdatedAt()));
+    }
+    
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
     }
-} 
\ No newline at end of file
+}
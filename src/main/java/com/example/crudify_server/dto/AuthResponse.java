@@ -10,6 +10,9 @@ public class AuthResponse {
     private String username;
     private String email;
     private String role;
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
     
     public AuthResponse() {}
     
@@ -21,6 +24,13 @@ public class AuthResponse {
         this.role = user.getRole().name();
     }
     
+    public AuthResponse(String token, String username, String email, String role) {
+        this.token = token;
+        this.username = username;
+        this.email = email;
+        this.role = role;
+    }
+    
     public String getToken() {
         return token;
     }
@@ -68,4 +78,20 @@ public class AuthResponse {
     public void setRole(String role) {
         this.role = role;
     }
+    
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public Long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(Long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
 } 
\ No newline at end of file
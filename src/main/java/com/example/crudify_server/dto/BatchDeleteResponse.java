@@ -0,0 +1,30 @@
+package com.example.crudify_server.dto;
+
+public class BatchDeleteResponse {
+    
+    private int requested;
+    private int deleted;
+    
+    public BatchDeleteResponse() {}
+    
+    public BatchDeleteResponse(int requested, int deleted) {
+        this.requested = requested;
+        this.deleted = deleted;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+    
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+    
+    public int getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.crudify_server.dto;
+
+import java.util.List;
+
+public class BulkProductResponse {
+    
+    private int created;
+    private int rejected;
+    private List<BulkProductResult> results;
+    
+    public BulkProductResponse() {}
+    
+    public BulkProductResponse(List<BulkProductResult> results) {
+        this.results = results;
+        this.created = (int) results.stream()
+                .filter(result -> result.getStatus() == BulkProductResult.Status.CREATED)
+                .count();
+        this.rejected = results.size() - created;
+    }
+    
+    public int getCreated() {
+        return created;
+    }
+    
+    public void setCreated(int created) {
+        this.created = created;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<BulkProductResult> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<BulkProductResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.crudify_server.dto;
+
+import java.util.Map;
+
+public class BulkProductResult {
+    
+    public enum Status {
+        CREATED, REJECTED
+    }
+    
+    private int index;
+    private Status status;
+    private Long id;
+    private Map<String, String> errors;
+    
+    public BulkProductResult() {}
+    
+    public BulkProductResult(int index, Status status, Long id, Map<String, String> errors) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.errors = errors;
+    }
+    
+    public static BulkProductResult created(int index, Long id) {
+        return new BulkProductResult(index, Status.CREATED, id, null);
+    }
+    
+    public static BulkProductResult rejected(int index, Map<String, String> errors) {
+        return new BulkProductResult(index, Status.REJECTED, null, errors);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
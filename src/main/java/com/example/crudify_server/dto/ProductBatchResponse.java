@@ -0,0 +1,32 @@
+package com.example.crudify_server.dto;
+
+import java.util.List;
+
+public class ProductBatchResponse {
+    
+    private List<ProductResponse> items;
+    private List<Long> missing;
+    
+    public ProductBatchResponse() {}
+    
+    public ProductBatchResponse(List<ProductResponse> items, List<Long> missing) {
+        this.items = items;
+        this.missing = missing;
+    }
+    
+    public List<ProductResponse> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ProductResponse> items) {
+        this.items = items;
+    }
+    
+    public List<Long> getMissing() {
+        return missing;
+    }
+    
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
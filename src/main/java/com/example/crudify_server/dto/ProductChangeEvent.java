@@ -0,0 +1,66 @@
+package com.example.crudify_server.dto;
+
+import java.time.LocalDateTime;
+
+public class ProductChangeEvent {
+    
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    private long id;
+    private Type type;
+    private Long productId;
+    private Long version;
+    private LocalDateTime changedAt;
+    
+    public ProductChangeEvent() {}
+    
+    public ProductChangeEvent(long id, Type type, Long productId, Long version, LocalDateTime changedAt) {
+        this.id = id;
+        this.type = type;
+        this.productId = productId;
+        this.version = version;
+        this.changedAt = changedAt;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+    
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
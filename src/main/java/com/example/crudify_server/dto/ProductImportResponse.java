@@ -0,0 +1,42 @@
+package com.example.crudify_server.dto;
+
+import java.util.List;
+
+public class ProductImportResponse {
+    
+    private long accepted;
+    private long rejected;
+    private List<Long> rejectedRows;
+    
+    public ProductImportResponse() {}
+    
+    public ProductImportResponse(long accepted, long rejected, List<Long> rejectedRows) {
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.rejectedRows = rejectedRows;
+    }
+    
+    public long getAccepted() {
+        return accepted;
+    }
+    
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+    
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<Long> getRejectedRows() {
+        return rejectedRows;
+    }
+    
+    public void setRejectedRows(List<Long> rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+}
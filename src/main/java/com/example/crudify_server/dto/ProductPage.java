@@ -0,0 +1,36 @@
+package com.example.crudify_server.dto;
+
+import java.util.List;
+
+public class ProductPage {
+    
+    private List<ProductResponse> items;
+    private String nextCursor;
+    
+    public ProductPage() {}
+    
+    public ProductPage(List<ProductResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<ProductResponse> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ProductResponse> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
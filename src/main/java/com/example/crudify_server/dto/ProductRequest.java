@@ -19,6 +19,9 @@ public class ProductRequest {
     @NotNull(message = "Quantity is required")
     private Integer quantity;
     
+    // Optional: the version the client last read; a mismatch on update is rejected with 409
+    private Long version;
+    
     public ProductRequest() {}
     
     public ProductRequest(String name, String description, BigDecimal price, Integer quantity) {
@@ -59,4 +62,12 @@ public class ProductRequest {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
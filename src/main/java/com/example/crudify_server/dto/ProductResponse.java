@@ -10,6 +10,7 @@ public class ProductResponse {
     private String description;
     private BigDecimal price;
     private Integer quantity;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -26,6 +27,12 @@ public class ProductResponse {
         this.updatedAt = updatedAt;
     }
     
+    public ProductResponse(Long id, String name, String description, BigDecimal price, 
+                          Integer quantity, Long version, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, description, price, quantity, createdAt, updatedAt);
+        this.version = version;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -66,6 +73,14 @@ public class ProductResponse {
         this.quantity = quantity;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
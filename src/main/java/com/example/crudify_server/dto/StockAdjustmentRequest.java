@@ -0,0 +1,23 @@
+package com.example.crudify_server.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class StockAdjustmentRequest {
+    
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+    
+    public StockAdjustmentRequest() {}
+    
+    public StockAdjustmentRequest(Integer delta) {
+        this.delta = delta;
+    }
+    
+    public Integer getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
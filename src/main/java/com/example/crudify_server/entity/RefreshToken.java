@@ -0,0 +1,142 @@
+package com.example.crudify_server.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+    
+    // SHA-256 hex of the opaque token handed to the client
+    @Column(name = "token_hash", nullable = false, unique = true, updatable = false, length = 64)
+    private String tokenHash;
+    
+    // Shared by every token in one rotation chain
+    @Column(name = "family_id", nullable = false, updatable = false)
+    private UUID familyId;
+    
+    // jti of the access token issued alongside
+    @Column(name = "access_token_id", nullable = false, unique = true, updatable = false)
+    private UUID accessTokenId;
+    
+    @Column(name = "access_expires_at", nullable = false, updatable = false)
+    private LocalDateTime accessExpiresAt;
+    
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+    
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+    
+    public RefreshToken() {}
+    
+    public RefreshToken(Long userId, String tokenHash, UUID familyId, UUID accessTokenId,
+                        LocalDateTime accessExpiresAt, LocalDateTime expiresAt) {
+        this.userId = userId;
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.accessTokenId = accessTokenId;
+        this.accessExpiresAt = accessExpiresAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+    
+    public UUID getFamilyId() {
+        return familyId;
+    }
+    
+    public void setFamilyId(UUID familyId) {
+        this.familyId = familyId;
+    }
+    
+    public UUID getAccessTokenId() {
+        return accessTokenId;
+    }
+    
+    public void setAccessTokenId(UUID accessTokenId) {
+        this.accessTokenId = accessTokenId;
+    }
+    
+    public LocalDateTime getAccessExpiresAt() {
+        return accessExpiresAt;
+    }
+    
+    public void setAccessExpiresAt(LocalDateTime accessExpiresAt) {
+        this.accessExpiresAt = accessExpiresAt;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getRotatedAt() {
+        return rotatedAt;
+    }
+    
+    public void setRotatedAt(LocalDateTime rotatedAt) {
+        this.rotatedAt = rotatedAt;
+    }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
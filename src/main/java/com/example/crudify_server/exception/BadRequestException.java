@@ -0,0 +1,9 @@
+package com.example.crudify_server.exception;
+
+// A request the client can fix; the message is returned to the client as is
+public class BadRequestException extends RuntimeException {
+    
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.crudify_server.exception;
+
+public class DuplicateUserException extends RuntimeException {
+    
+    public enum Field {
+        USERNAME("username", "Username is already taken!"),
+        EMAIL("email", "Email is already in use!");
+        
+        private final String property;
+        private final String message;
+        
+        Field(String property, String message) {
+            this.property = property;
+            this.message = message;
+        }
+        
+        public String getProperty() {
+            return property;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+    }
+    
+    private final Field field;
+    
+    public DuplicateUserException(Field field) {
+        super(field.getMessage());
+        this.field = field;
+    }
+    
+    public Field getField() {
+        return field;
+    }
+}
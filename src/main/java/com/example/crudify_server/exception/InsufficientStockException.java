@@ -0,0 +1,21 @@
+package com.example.crudify_server.exception;
+
+public class InsufficientStockException extends RuntimeException {
+    
+    private final Long productId;
+    private final int delta;
+    
+    public InsufficientStockException(Long productId, int delta) {
+        super("Insufficient stock for product " + productId + " to apply " + delta);
+        this.productId = productId;
+        this.delta = delta;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public int getDelta() {
+        return delta;
+    }
+}
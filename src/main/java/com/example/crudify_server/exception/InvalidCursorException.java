@@ -0,0 +1,8 @@
+package com.example.crudify_server.exception;
+
+public class InvalidCursorException extends BadRequestException {
+    
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.crudify_server.exception;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    
+    public InvalidRefreshTokenException() {
+        super("Invalid or expired refresh token");
+    }
+}
@@ -1,20 +1,91 @@
 package com.example.crudify_server.repository;
 
+import com.example.crudify_server.dto.ProductResponse;
 import com.example.crudify_server.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
-    List<Product> findByNameContainingIgnoreCase(String name);
+    // Read-only listings project straight into the DTO; no managed entities, no dirty-checking snapshots
+    String PRODUCT_RESPONSE_PROJECTION = "SELECT new com.example.crudify_server.dto.ProductResponse("
+            + "p.id, p.name, p.description, p.price, p.quantity, p.version, p.createdAt, p.updatedAt) "
+            + "FROM Product p ";
     
-    @Query("SELECT p FROM Product p WHERE p.quantity > :minQuantity")
-    List<Product> findProductsWithMinimumQuantity(@Param("minQuantity") Integer minQuantity);
+    // Keyset page: seeks past the last id of the previous page via the primary key index
+    @Query(PRODUCT_RESPONSE_PROJECTION + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductResponse> findPageAfterId(@Param("afterId") Long afterId, Limit limit);
+    
+    // Single-statement conditional stock change; no row is returned when the product is missing or the result
+    // would leave 0..Integer.MAX_VALUE (checked in bigint, so the guard itself cannot overflow)
+    @Transactional
+    @Query(value = "UPDATE products SET quantity = quantity + :delta, version = version + 1, updated_at = now() "
+            + "WHERE id = :id AND quantity::bigint + :delta BETWEEN 0 AND 2147483647 RETURNING *", nativeQuery = true)
+    Optional<Product> adjustQuantity(@Param("id") Long id, @Param("delta") int delta);
+    
+    // Write-behind flush of a coalesced delta; admitted in memory, but still refused if another writer drained the stock
+    @Transactional
+    @Query(value = "UPDATE products SET quantity = quantity + :delta, version = version + 1, updated_at = now() "
+            + "WHERE id = :id AND quantity::bigint + :delta BETWEEN 0 AND 2147483647 RETURNING *", nativeQuery = true)
+    Optional<Product> applyQuantityDelta(@Param("id") Long id, @Param("delta") int delta);
+    
+    // Bulk JPQL deletes: one statement, affected-row count returned, no entity load beforehand
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id")
+    int deleteProductById(@Param("id") Long id);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id IN :ids")
+    int deleteProductsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+    
+    @Query("SELECT p.version FROM Product p WHERE p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    interface ProductVersionView {
+        Long getId();
+        
+        Long getVersion();
+    }
+    
+    @Query("SELECT p.id AS id, p.version AS version FROM Product p WHERE p.id IN :ids")
+    List<ProductVersionView> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Server-side cursor for full exports; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderedById();
+    
+    // Substring match served by idx_products_name_trgm, best trigram similarity first
+    @Query(PRODUCT_RESPONSE_PROJECTION + "WHERE p.name ILIKE :pattern "
+            + "ORDER BY function('similarity', p.name, :name) DESC, p.id")
+    List<ProductResponse> searchByName(@Param("pattern") String pattern,
+                                       @Param("name") String name,
+                                       Limit limit);
+    
+    @Query(PRODUCT_RESPONSE_PROJECTION + "WHERE p.quantity > :minQuantity")
+    List<ProductResponse> findProductsWithMinimumQuantity(@Param("minQuantity") Integer minQuantity);
     
     List<Product> findByQuantityGreaterThan(Integer quantity);
 } 
\ No newline at end of file
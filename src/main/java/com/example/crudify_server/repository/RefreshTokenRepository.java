@@ -0,0 +1,52 @@
+package com.example.crudify_server.repository;
+
+import com.example.crudify_server.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    // Conditional update: of two concurrent exchanges of the same token only one sees a row change
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.rotatedAt = :now WHERE t.id = :id AND t.rotatedAt IS NULL AND t.revokedAt IS NULL")
+    int markRotated(@Param("id") Long id, @Param("now") LocalDateTime now);
+    
+    @Query("SELECT t.accessTokenId FROM RefreshToken t "
+            + "WHERE t.familyId = :familyId AND t.revokedAt IS NULL AND t.accessExpiresAt > :now")
+    List<UUID> findLiveAccessTokenIdsByFamilyId(@Param("familyId") UUID familyId, @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") LocalDateTime now);
+    
+    // Access tokens that were revoked but would otherwise still be accepted
+    @Transactional(readOnly = true)
+    @Query("SELECT t.accessTokenId FROM RefreshToken t WHERE t.revokedAt IS NOT NULL AND t.accessExpiresAt > :now")
+    List<UUID> findRevokedAccessTokenIds(@Param("now") LocalDateTime now);
+    
+    @Transactional(readOnly = true)
+    @Query("SELECT t.accessTokenId FROM RefreshToken t WHERE t.revokedAt >= :since AND t.accessExpiresAt > :now")
+    List<UUID> findRevokedAccessTokenIdsSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+    
+    @Transactional(readOnly = true)
+    boolean existsByAccessTokenIdAndRevokedAtIsNotNull(UUID accessTokenId);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
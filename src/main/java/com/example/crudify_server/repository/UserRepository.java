@@ -2,13 +2,19 @@ package com.example.crudify_server.repository;
 
 import com.example.crudify_server.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    @Transactional(readOnly = true)
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
@@ -16,4 +22,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+    
+    // One round trip; a duplicate username or email is left to the unique constraints and yields no id
+    @Transactional
+    @Query(value = "INSERT INTO users (username, email, password, role, created_at, updated_at) "
+            + "VALUES (:username, :email, :password, :role, :now, :now) "
+            + "ON CONFLICT DO NOTHING RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("username") String username,
+                                  @Param("email") String email,
+                                  @Param("password") String password,
+                                  @Param("role") String role,
+                                  @Param("now") LocalDateTime now);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = :updatedAt WHERE u.username = :username")
+    int updatePassword(@Param("username") String username,
+                       @Param("password") String password,
+                       @Param("updatedAt") LocalDateTime updatedAt);
 } 
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.repository.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Revoked access tokens, as seen by the authentication hot path. A Bloom filter over the
+ * {@code jti} of every revoked, unexpired access token answers nearly every check without I/O;
+ * only its positives are confirmed against {@code refresh_tokens}. Revocations made on other
+ * nodes arrive with the periodic sync, and a slower rebuild drops ids whose tokens have expired.
+ */
+@Service
+public class AccessTokenDenylist {
+    
+    // Revocations that commit out of timestamp order are still caught by the next sync
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    // Every read goes to the primary: a lagging replica would report a just-revoked token as live
+    @Autowired
+    private ReplicaRoutingContext replicaRoutingContext;
+    
+    @Value("${app.jwt.expiration:900000}")
+    private long jwtExpiration;
+    
+    @Value("${app.jwt.denylist.expected-entries:100000}")
+    private long expectedEntries;
+    
+    @Value("${app.jwt.denylist.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+    
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime syncedUpTo;
+    // Confirmed revocations never flip back, so repeat attempts with a revoked token skip the query
+    private Cache<String, Boolean> confirmed;
+    
+    @PostConstruct
+    void init() {
+        confirmed = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(Math.max(jwtExpiration, 0)))
+                .build();
+        rebuild();
+    }
+    
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (confirmed.getIfPresent(tokenId) != null) {
+            return true;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(tokenId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        boolean revoked = replicaRoutingContext.onPrimary(
+                () -> refreshTokenRepository.existsByAccessTokenIdAndRevokedAtIsNotNull(id));
+        if (revoked) {
+            confirmed.put(tokenId, Boolean.TRUE);
+        }
+        return revoked;
+    }
+    
+    // Takes effect on this node at once; other nodes pick it up from the table on their next sync
+    public void revoke(Collection<UUID> tokenIds) {
+        BloomFilter current = filter;
+        tokenIds.forEach(id -> current.put(id.toString()));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.jwt.denylist.sync-interval-ms:5000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        BloomFilter current = filter;
+        LocalDateTime since = syncedUpTo.minus(SYNC_OVERLAP);
+        replicaRoutingContext.onPrimary(() -> refreshTokenRepository.findRevokedAccessTokenIdsSince(since, now))
+                .forEach(id -> current.put(id.toString()));
+        syncedUpTo = now;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.jwt.denylist.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.jwt.denylist.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> revoked = replicaRoutingContext.onPrimary(
+                () -> refreshTokenRepository.findRevokedAccessTokenIds(now));
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2L), falsePositiveRate);
+        revoked.forEach(id -> rebuilt.put(id.toString()));
+        filter = rebuilt;
+        syncedUpTo = now;
+    }
+}
@@ -1,79 +1,174 @@
 package com.example.crudify_server.service;
 
+import com.example.crudify_server.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
     
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    
     @Value("${app.jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String secretKey;
     
-    @Value("${app.jwt.expiration:86400000}")
+    @Autowired
+    private AccessTokenDenylist accessTokenDenylist;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.jwt.expiration:900000}")
     private long jwtExpiration;
     
+    @Value("${app.jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+    
+    private SecretKey signInKey;
+    private JwtParser parser;
+    // Keyed by SHA-256 of the token so raw bearer tokens are not kept on the heap
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+    private Timer parseTimer;
+    
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signInKey).build();
+        // Each entry lives exactly until its token expires, so a cache hit never outlives the token
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(Expiry.creating((ByteBuffer key, Claims claims) -> claims.getExpiration() == null
+                        ? Duration.ofMillis(Math.max(jwtExpiration, 0))
+                        : Duration.ofMillis(Math.max(claims.getExpiration().getTime() - System.currentTimeMillis(), 0))))
+                .recordStats()
+                .build();
+        // Same tag keys as the Spring-managed caches; Prometheus drops cache.* meters whose keys differ
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens",
+                "cache.manager", "jwtService", "name", "jwtVerifiedTokens");
+        parseTimer = Timer.builder("auth.jwt.parse")
+                .description("Signature check and claims parsing on verified-token cache misses")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Verifies the signature and expiry once and returns the claims. A token verified recently is
+     * answered from a bounded cache, skipping the HMAC and JSON work, until it expires. Revocation
+     * is checked on every call, after the cache.
+     *
+     * @throws JwtException if the token is malformed, tampered with, expired or revoked
+     */
+    public Claims verify(String token) {
+        ByteBuffer key = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims == null) {
+            claims = parseTimer.record(() -> parser.parseSignedClaims(token).getPayload());
+            verifiedTokens.put(key, claims);
+        }
+        if (accessTokenDenylist.isRevoked(claims.getId())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return claims;
+    }
+    
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
     
+    public long getExpiration() {
+        return jwtExpiration;
+    }
+    
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        return generateToken(userDetails, UUID.randomUUID());
+    }
+    
+    // tokenId becomes the jti, the handle used to revoke this token
+    public String generateToken(UserDetails userDetails, UUID tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        // Lets the authentication filter rebuild the principal without reading the users table
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole().name());
+        }
+        return buildToken(claims, userDetails, tokenId, jwtExpiration);
     }
     
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, UUID.randomUUID(), jwtExpiration);
     }
     
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, UUID tokenId, long expiration) {
         return Jwts
                 .builder()
                 .claims(extraClaims)
+                .id(tokenId.toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), Jwts.SIG.HS256)
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-    
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(verify(token), userDetails);
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Expiry is already enforced by verify(); claims can only come from a verified token
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject());
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Principal rebuilt from the id and role claims, or {@code null} for tokens issued without them.
+     */
+    public UserDetails toUserDetails(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        User user = new User();
+        user.setId(userId.longValue());
+        user.setUsername(claims.getSubject());
+        user.setRole(User.Role.valueOf(role));
+        return user;
     }
     
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-} 
\ No newline at end of file
+}
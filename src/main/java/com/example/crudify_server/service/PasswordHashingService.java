@@ -0,0 +1,93 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded pool for work dominated by password hashing (login and registration). A login
+ * storm saturates this pool and is turned away with 503 once its queue is full, instead of
+ * occupying every servlet thread and stalling unrelated endpoints.
+ */
+@Service
+public class PasswordHashingService {
+    
+    static final String POOL_NAME = "password-hashing";
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.auth.hashing.threads:0}")
+    private int threads;
+    
+    @Value("${app.auth.hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${app.auth.hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+    
+    private ThreadPoolExecutor executor;
+    
+    private final LongAdder rejected = new LongAdder();
+    private Timer taskTimer;
+    
+    @PostConstruct
+    void init() {
+        // Hashing is CPU-bound; by default leave half the cores to everything else
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, POOL_NAME + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // executor.* gauges and counters (pool size, active, queued, completed) tagged name=password-hashing
+        new ExecutorServiceMetrics(executor, POOL_NAME, Tags.empty()).bindTo(meterRegistry);
+        FunctionCounter.builder("auth.hashing.rejected", rejected, LongAdder::sum)
+                .description("Login and registration requests turned away with 503")
+                .register(meterRegistry);
+        taskTimer = Timer.builder("auth.hashing.task")
+                .description("Time a login or registration spends running on the hashing pool")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+    
+    /**
+     * Runs {@code task} on the hashing pool.
+     *
+     * @throws ServiceOverloadedException if the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> taskTimer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Too many concurrent login or registration requests",
+                    retryAfterSeconds);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.dto.ProductChangeEvent;
+import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps this node's product cache coherent with writes made by other instances. Change events from
+ * {@link ProductChangeListener} reload cached entries older than the changed row from the primary,
+ * so a node's own writes do not knock out the value it just cached and the next miss cannot re-cache
+ * the old row from a lagging replica. After the listener reconnects, and periodically as a backstop,
+ * cached versions are compared with the primary and mismatches are dropped.
+ */
+@Service
+public class ProductCacheInvalidator {
+    
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheInvalidator.class);
+    
+    static final int RESYNC_BATCH_SIZE = 1000;
+    
+    @Autowired
+    private ProductChangeListener productChangeListener;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ReplicaRoutingContext replicaRoutingContext;
+    
+    @PostConstruct
+    void init() {
+        productChangeListener.subscribe(this::onChange);
+        productChangeListener.onReconnect(this::resync);
+    }
+    
+    void onChange(ProductChangeEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache == null || event.getType() == ProductChangeEvent.Type.CREATED) {
+            return;
+        }
+        if (event.getType() == ProductChangeEvent.Type.DELETED) {
+            cache.evict(event.getProductId());
+            return;
+        }
+        ProductResponse cached = cache.get(event.getProductId(), ProductResponse.class);
+        if (cached != null && (cached.getVersion() == null || event.getVersion() == null
+                || cached.getVersion() < event.getVersion())) {
+            Optional<ProductResponse> reloaded = replicaRoutingContext.onPrimary(
+                    () -> productService.reloadProduct(event.getProductId()));
+            if (reloaded.isEmpty()) {
+                cache.evict(event.getProductId());
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.cache.products.resync-interval-ms:60000}",
+            initialDelayString = "${app.cache.products.resync-interval-ms:60000}")
+    public int resync() {
+        if (!(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE) instanceof CaffeineCache cache)) {
+            return 0;
+        }
+        List<Long> ids = cache.getNativeCache().asMap().keySet().stream()
+                .map(Long.class::cast)
+                .collect(Collectors.toList());
+        int evicted = 0;
+        for (int from = 0; from < ids.size(); from += RESYNC_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + RESYNC_BATCH_SIZE, ids.size()));
+            // A lagging replica would report old versions and evict fresh entries
+            Map<Long, Long> versions = replicaRoutingContext.onPrimary(() -> productRepository.findVersionsByIdIn(batch))
+                    .stream()
+                    .collect(Collectors.toMap(ProductRepository.ProductVersionView::getId,
+                            ProductRepository.ProductVersionView::getVersion));
+            for (Long id : batch) {
+                ProductResponse cached = cache.get(id, ProductResponse.class);
+                if (cached != null && !Objects.equals(versions.get(id), cached.getVersion())) {
+                    cache.evict(id);
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            log.info("Product cache resync evicted {} of {} entries", evicted, ids.size());
+        }
+        return evicted;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.ProductChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events view of {@link ProductChangeListener}. Every subscriber has a bounded buffer
+ * drained by at most one sender thread at a time, and the pool grows past its core size rather
+ * than queueing, so a client whose blocking write stalls only holds its own thread. A client that
+ * falls a full buffer behind, or whose write takes longer than the send timeout, is disconnected
+ * and resumes from the change log with {@code Last-Event-ID}.
+ */
+@Service
+public class ProductChangeFeedService {
+
+    public static final String RESET_EVENT = "reset";
+
+    @Autowired
+    private ProductChangeListener productChangeListener;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.products.change-feed.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${app.products.change-feed.replay-limit:1000}")
+    private int replayLimit;
+
+    @Value("${app.products.change-feed.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.products.change-feed.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.products.change-feed.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.products.change-feed.retention-hours:24}")
+    private long retentionHours;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sender = new ThreadPoolExecutor(senderThreads, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "product-change-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        productChangeListener.subscribe(this::publish);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Opens a change stream. With a {@code lastEventId} the changes logged after it are replayed
+     * first, along with those of transactions still open when it was logged (see V9 migration), so
+     * a client may see an event again and should ignore ids it already has. If more than the replay
+     * limit were missed, or the event has been purged, a single {@code reset} event is sent instead
+     * and the client is expected to reload the product list.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        Subscriber subscriber = new Subscriber(newEmitter());
+        subscribers.add(subscriber);
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Registered before the replay query, so live events that race with it are held and de-duplicated
+        try {
+            if (lastEventId != null) {
+                List<ProductChangeEvent> missed = missedSince(lastEventId);
+                if (missed == null || missed.size() > replayLimit) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(productChangeListener.getLastEventId()))
+                            .name(RESET_EVENT)
+                            .data(""));
+                } else {
+                    Set<Long> replayed = new HashSet<>();
+                    for (ProductChangeEvent event : missed) {
+                        emitter.send(toSseEvent(event));
+                        replayed.add(event.getId());
+                    }
+                    subscriber.replayed = replayed;
+                }
+            }
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscriber.release();
+        return emitter;
+    }
+
+    // Null when the cursor event is gone and newer ones exist, so the gap cannot be bounded. The cursor's
+    // own transaction is skipped; its rows were all delivered with the cursor event.
+    private List<ProductChangeEvent> missedSince(long lastEventId) {
+        List<long[]> cursor = jdbcTemplate.query(
+                "SELECT COALESCE(snapshot_xmin, tx_id), tx_id FROM product_changes WHERE id = ?",
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, lastEventId);
+        if (cursor.isEmpty()) {
+            Boolean newer = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM product_changes WHERE id > ?)", Boolean.class, lastEventId);
+            return Boolean.TRUE.equals(newer) ? null : List.of();
+        }
+        return jdbcTemplate.query(ProductChangeListener.SELECT_CHANGES
+                        + "WHERE id > ? OR (tx_id >= ? AND tx_id <> ?) ORDER BY id LIMIT ?",
+                (rs, rowNum) -> ProductChangeListener.mapRow(rs),
+                lastEventId, cursor.get(0)[0], cursor.get(0)[1], replayLimit + 1);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.products.change-feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    // The stalled write itself ends when the container's write timeout fires or the connection closes
+    @Scheduled(fixedDelayString = "${app.products.change-feed.send-check-ms:1000}")
+    public void expireStalledSends() {
+        long now = System.nanoTime();
+        subscribers.forEach(subscriber -> subscriber.expireIfStalled(now));
+    }
+
+    @Scheduled(fixedDelayString = "${app.products.change-feed.purge-interval-ms:600000}")
+    public void purgeChangeLog() {
+        jdbcTemplate.update("DELETE FROM product_changes WHERE changed_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours)));
+    }
+
+    void publish(ProductChangeEvent event) {
+        subscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(emitterTimeoutMs);
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(ProductChangeEvent event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.getId()))
+                .name(event.getType().name().toLowerCase())
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<ProductChangeEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        // Held until the replay is sent so live events cannot overtake it
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        private volatile Set<Long> replayed = Set.of();
+        private volatile boolean sending;
+        private volatile long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(ProductChangeEvent event) {
+            if (!queue.offer(event)) {
+                disconnect();
+                return;
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        private void release() {
+            draining.set(false);
+            if (!queue.isEmpty() || heartbeatDue.get()) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (heartbeatDue.getAndSet(false)) {
+                    send(SseEmitter.event().comment("keep-alive"));
+                }
+                ProductChangeEvent event;
+                while ((event = queue.poll()) != null && subscribers.contains(this)) {
+                    if (!replayed.contains(event.getId())) {
+                        send(toSseEvent(event));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!queue.isEmpty() || heartbeatDue.get()) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStartedNanos = System.nanoTime();
+            sending = true;
+            try {
+                emitter.send(event);
+            } finally {
+                sending = false;
+            }
+        }
+
+        private void expireIfStalled(long now) {
+            if (sending && now - sendStartedNanos > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)
+                    && subscribers.remove(this)) {
+                queue.clear();
+                emitter.completeWithError(new IOException("Send timed out after " + sendTimeoutMs + " ms"));
+            }
+        }
+
+        private void disconnect() {
+            if (subscribers.remove(this)) {
+                queue.clear();
+                emitter.complete();
+            }
+        }
+    }
+}
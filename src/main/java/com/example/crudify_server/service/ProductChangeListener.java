@@ -0,0 +1,232 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.ProductChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Holds the node's single {@code LISTEN product_changes} connection (see V7 migration) and fans
+ * committed product changes out to in-process subscribers. Notifications only wake the listener up;
+ * it then reads {@code product_changes} in one repeatable-read snapshot. Ids follow insert order,
+ * not commit order, so besides ids above the last delivered one each read also picks up rows of the
+ * transactions the previous snapshot saw in progress, which may commit below it. The same read
+ * catches up after a reconnect.
+ */
+@Service
+public class ProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeListener.class);
+
+    static final String CHANNEL = "product_changes";
+
+    static final String SELECT_CHANGES =
+            "SELECT id, operation, product_id, version, changed_at FROM product_changes ";
+
+    // Top-level ids of the transactions running at the statement's snapshot; product_changes rows are
+    // only written by the products triggers, which run after the row change has assigned the xid
+    private static final String IN_PROGRESS = "ARRAY(SELECT txid_snapshot_xip(txid_current_snapshot()))";
+
+    private static final int CATCH_UP_PAGE_SIZE = 1000;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${app.products.change-feed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.products.change-feed.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${app.products.change-feed.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private final List<Consumer<ProductChangeEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private volatile long lastEventId;
+    // Transactions in progress at the last read; only they can still commit ids below lastEventId
+    private Long[] pendingTransactions = new Long[0];
+    private Thread thread;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "product-change-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join(pollTimeoutMs * 2L);
+        }
+    }
+
+    public void subscribe(Consumer<ProductChangeEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    // Invoked after a lost connection is re-established and caught up; notifications sent meanwhile are gone
+    public void onReconnect(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+    private void run() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    poll(connection);
+                    notifyReconnected();
+                } else {
+                    start(connection);
+                }
+                connectedBefore = true;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        poll(connection);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Product change listener lost its connection; reconnecting in {} ms", reconnectDelayMs, e);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Runs right after the first LISTEN; history before it is not delivered
+    private void start(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0), " + IN_PROGRESS
+                     + " FROM product_changes")) {
+            rs.next();
+            lastEventId = rs.getLong(1);
+            pendingTransactions = (Long[]) rs.getArray(2).getArray();
+        }
+    }
+
+    // Runs after LISTEN, so also catches up on anything committed while we were disconnected. State only
+    // advances once the whole read succeeded; a failed read is repeated, possibly re-delivering events.
+    private void poll(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        try {
+            Long[] inProgress;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT " + IN_PROGRESS)) {
+                rs.next();
+                inProgress = (Long[]) rs.getArray(1).getArray();
+            }
+            Array pending = connection.createArrayOf("bigint", pendingTransactions);
+            long deliveredUpTo = lastEventId;
+            long afterId = 0;
+            List<ProductChangeEvent> page;
+            do {
+                page = query(connection, SELECT_CHANGES + "WHERE (id > ? OR tx_id = ANY(?)) AND id > ? "
+                        + "ORDER BY id LIMIT " + CATCH_UP_PAGE_SIZE, deliveredUpTo, pending, afterId);
+                publish(page);
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == CATCH_UP_PAGE_SIZE);
+            connection.commit();
+            lastEventId = Math.max(deliveredUpTo, afterId);
+            pendingTransactions = inProgress;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void notifyReconnected() {
+        for (Runnable listener : reconnectListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.warn("Product change reconnect listener failed", e);
+            }
+        }
+    }
+
+    private void publish(List<ProductChangeEvent> events) {
+        for (ProductChangeEvent event : events) {
+            for (Consumer<ProductChangeEvent> subscriber : subscribers) {
+                try {
+                    subscriber.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Product change subscriber failed on event {}", event.getId(), e);
+                }
+            }
+        }
+    }
+
+    private static List<ProductChangeEvent> query(Connection connection, String sql, Object... params)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                List<ProductChangeEvent> events = new ArrayList<>();
+                while (rs.next()) {
+                    events.add(mapRow(rs));
+                }
+                return events;
+            }
+        }
+    }
+
+    static ProductChangeEvent mapRow(ResultSet rs) throws SQLException {
+        ProductChangeEvent.Type type = switch (rs.getString("operation")) {
+            case "INSERT" -> ProductChangeEvent.Type.CREATED;
+            case "DELETE" -> ProductChangeEvent.Type.DELETED;
+            default -> ProductChangeEvent.Type.UPDATED;
+        };
+        long version = rs.getLong("version");
+        return new ProductChangeEvent(rs.getLong("id"), type, rs.getLong("product_id"),
+                rs.wasNull() ? null : version, rs.getTimestamp("changed_at").toLocalDateTime());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.ProductImportResponse;
+import com.example.crudify_server.exception.BadRequestException;
+import org.postgresql.PGConnection;
+import org.postgresql.util.PSQLException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Loads products from CSV ({@code name,description,price,quantity} with a header row) through the
+ * COPY protocol. Rows land in a transaction-scoped staging table as text and only those that pass
+ * the same rules as {@link com.example.crudify_server.dto.ProductRequest} are merged into products.
+ */
+@Service
+public class ProductImportService {
+    
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+    
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE product_import_staging ("
+            + "row_no BIGINT GENERATED ALWAYS AS IDENTITY, "
+            + "name TEXT, description TEXT, price TEXT, quantity TEXT"
+            + ") ON COMMIT DROP";
+    
+    private static final String COPY_SQL =
+            "COPY product_import_staging (name, description, price, quantity) "
+            + "FROM STDIN WITH (FORMAT csv, HEADER true)";
+    
+    // ProductRequest rules plus the column limits of the products table; the CASE keeps the cast guarded
+    private static final String VALID_ROW =
+            "(name IS NOT NULL AND btrim(name) <> '' AND length(name) <= 255 "
+            + "AND (description IS NULL OR length(description) <= 1000) "
+            + "AND CASE WHEN price ~ '^\\s*\\d{1,8}(\\.\\d{1,2})?\\s*$' THEN price::numeric > 0 ELSE false END "
+            + "AND quantity ~ '^\\s*[+-]?\\d{1,9}\\s*$')";
+    
+    // products_id_seq steps by Hibernate's allocationSize (V5) and the pooled optimizer reads each value as
+    // the top of a block, so ids are drawn the same way: one nextval() per block of valid rows instead of
+    // the column default burning a whole block on every row
+    static final int ID_BLOCK_SIZE = 50;
+    
+    private static final String MERGE_SQL =
+            "WITH valid AS ("
+            + "SELECT row_no, name, description, price, quantity, row_number() OVER (ORDER BY row_no) - 1 AS n "
+            + "FROM product_import_staging WHERE " + VALID_ROW + "), "
+            + "blocks AS ("
+            + "SELECT block, nextval('products_id_seq') AS hi FROM generate_series(0, "
+            + "(SELECT (count(*) + " + (ID_BLOCK_SIZE - 1) + ") / " + ID_BLOCK_SIZE + " - 1 FROM valid)) AS block) "
+            + "INSERT INTO products (id, name, description, price, quantity, created_at, updated_at) "
+            + "SELECT hi - " + (ID_BLOCK_SIZE - 1) + " + n % " + ID_BLOCK_SIZE + ", "
+            + "name, description, price::numeric(10,2), quantity::integer, now(), now() "
+            + "FROM valid JOIN blocks ON block = n / " + ID_BLOCK_SIZE + " ORDER BY row_no";
+    
+    private static final String REJECTED_ROWS_SQL =
+            "SELECT row_no FROM product_import_staging WHERE " + VALID_ROW + " IS NOT TRUE "
+            + "ORDER BY row_no LIMIT ?";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Transactional
+    public ProductImportResponse importCsv(Reader csv) {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        long staged = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> copyIn(connection, csv));
+        
+        int accepted = jdbcTemplate.update(MERGE_SQL);
+        List<Long> rejectedRows = jdbcTemplate.queryForList(REJECTED_ROWS_SQL, Long.class, MAX_REPORTED_REJECTIONS);
+        return new ProductImportResponse(accepted, staged - accepted, rejectedRows);
+    }
+    
+    private static long copyIn(Connection connection, Reader csv) throws SQLException {
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, csv);
+        } catch (PSQLException e) {
+            // SQLSTATE class 22 is a data exception, e.g. wrong column count or bad encoding
+            if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                throw new BadRequestException("Malformed CSV: " + e.getMessage());
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
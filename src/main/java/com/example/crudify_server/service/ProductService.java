@@ -1,88 +1,339 @@
 package com.example.crudify_server.service;
 
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.dto.BatchDeleteResponse;
+import com.example.crudify_server.dto.BulkProductResponse;
+import com.example.crudify_server.dto.BulkProductResult;
+import com.example.crudify_server.dto.ProductBatchResponse;
+import com.example.crudify_server.dto.ProductPage;
 import com.example.crudify_server.dto.ProductRequest;
 import com.example.crudify_server.dto.ProductResponse;
 import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.exception.BadRequestException;
+import com.example.crudify_server.exception.InsufficientStockException;
+import com.example.crudify_server.exception.InvalidCursorException;
 import com.example.crudify_server.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BULK_SIZE = 10_000;
+    public static final int MAX_BATCH_IDS = 1000;
+    
+    // Flush and clear the persistence context every N inserts so bulk memory stays bounded
+    private static final int BULK_FLUSH_SIZE = 500;
+    
     @Autowired
     private ProductRepository productRepository;
     
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll()
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Transactional(readOnly = true)
+    public ProductPage getAllProducts(String cursor, Integer limit) {
+        int pageSize = clampPageSize(limit);
+        long afterId = cursor == null || cursor.isBlank() ? 0L : decodeCursor(cursor);
+        
+        // Fetch one extra row so we know whether another page exists without a count query
+        List<ProductResponse> products = productRepository.findPageAfterId(afterId, Limit.of(pageSize + 1));
+        boolean hasNext = products.size() > pageSize;
+        List<ProductResponse> items = hasNext ? new ArrayList<>(products.subList(0, pageSize)) : products;
+        
+        String nextCursor = hasNext ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return new ProductPage(items, nextCursor);
+    }
+    
+    /**
+     * Streams every product to the consumer in id order from a single repeatable-read snapshot.
+     * Rows are detached as soon as they are handed off so memory stays flat for any catalog size.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void exportProducts(Consumer<ProductResponse> consumer) {
+        try (Stream<Product> products = productRepository.streamAllOrderedById()) {
+            products.forEach(product -> {
+                consumer.accept(convertToResponse(product));
+                entityManager.detach(product);
+            });
+        }
     }
     
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<ProductResponse> getProductById(Long id) {
         return productRepository.findById(id)
                 .map(this::convertToResponse);
     }
     
-    public ProductResponse createProduct(ProductRequest request) {
-        Product product = new Product(
-                request.getName(),
-                request.getDescription(),
-                request.getPrice(),
-                request.getQuantity()
-        );
+    // Replaces the cached entry with a fresh read; callers choose the data source (see ProductCacheInvalidator)
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<ProductResponse> reloadProduct(Long id) {
+        return productRepository.findById(id)
+                .map(this::convertToResponse);
+    }
+    
+    /**
+     * Resolves many ids at once: cached products are served from memory and the rest are loaded
+     * with a single IN query. Items come back in request order; unknown ids are listed as missing.
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getProductsByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Batch lookup accepts at most " + MAX_BATCH_IDS + " ids");
+        }
+        
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        Map<Long, ProductResponse> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : distinctIds) {
+            ProductResponse cached = productCache != null ? productCache.get(id, ProductResponse.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                uncached.add(id);
+            }
+        }
+        
+        if (!uncached.isEmpty()) {
+            for (Product product : productRepository.findAllById(uncached)) {
+                ProductResponse response = convertToResponse(product);
+                found.put(product.getId(), response);
+                if (productCache != null) {
+                    productCache.put(product.getId(), response);
+                }
+            }
+        }
         
-        Product savedProduct = productRepository.save(product);
+        List<ProductResponse> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            ProductResponse product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchResponse(items, missing);
+    }
+    
+    // Answered from the product cache when possible, so revalidating a hot product costs no query;
+    // not @Transactional, which would take a connection even on a hit
+    public Optional<Long> getProductVersion(Long id) {
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        ProductResponse cached = productCache != null ? productCache.get(id, ProductResponse.class) : null;
+        if (cached != null && cached.getVersion() != null) {
+            return Optional.of(cached.getVersion());
+        }
+        return productRepository.findVersionById(id);
+    }
+    
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
+    public ProductResponse createProduct(ProductRequest request) {
+        Product savedProduct = productRepository.save(toEntity(request));
         return convertToResponse(savedProduct);
     }
     
+    /**
+     * Validates and inserts each request independently; invalid items are reported, not fatal.
+     * Ids come from the pooled sequence, so the inserts are sent as JDBC batches on flush.
+     */
+    @Transactional
+    public BulkProductResponse createProducts(List<ProductRequest> requests) {
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("Bulk create accepts at most " + MAX_BULK_SIZE + " products");
+        }
+        
+        List<BulkProductResult> results = new ArrayList<>(requests.size());
+        int pending = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            ProductRequest request = requests.get(i);
+            Map<String, String> errors = validate(request);
+            if (!errors.isEmpty()) {
+                results.add(BulkProductResult.rejected(i, errors));
+                continue;
+            }
+            
+            Product savedProduct = productRepository.save(toEntity(request));
+            results.add(BulkProductResult.created(i, savedProduct.getId()));
+            if (++pending % BULK_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return new BulkProductResponse(results);
+    }
+    
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    @Transactional
     public Optional<ProductResponse> updateProduct(Long id, ProductRequest request) {
         return productRepository.findById(id)
                 .map(product -> {
+                    if (request.getVersion() != null && !request.getVersion().equals(product.getVersion())) {
+                        throw new ObjectOptimisticLockingFailureException(Product.class, id);
+                    }
                     product.setName(request.getName());
                     product.setDescription(request.getDescription());
                     product.setPrice(request.getPrice());
                     product.setQuantity(request.getQuantity());
                     
-                    Product updatedProduct = productRepository.save(product);
+                    // The entity is already managed, so this is a single versioned UPDATE with no merge SELECT;
+                    // flushing here surfaces a concurrent write as a conflict and gives the response its new version
+                    Product updatedProduct = productRepository.saveAndFlush(product);
                     return convertToResponse(updatedProduct);
                 });
     }
     
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null")
+    public Optional<ProductResponse> adjustStock(Long id, int delta) {
+        Optional<Product> adjusted = productRepository.adjustQuantity(id, delta);
+        if (adjusted.isEmpty()) {
+            // Only the failure path pays for a second statement to tell "missing" from "out of range"
+            Optional<Integer> quantity = productRepository.findQuantityById(id);
+            if (quantity.isPresent()) {
+                checkStock(id, quantity.get(), delta);
+                // In range by now, so a concurrent change decided it
+                throw new InsufficientStockException(id, delta);
+            }
+        }
+        return adjusted.map(this::convertToResponse);
+    }
+    
+    // Stock stays within 0..Integer.MAX_VALUE; the sum is taken in long so it cannot wrap
+    static void checkStock(Long id, long quantity, int delta) {
+        if (quantity + delta < 0) {
+            throw new InsufficientStockException(id, delta);
+        }
+        if (quantity + delta > Integer.MAX_VALUE) {
+            throw new BadRequestException("Stock for product " + id + " cannot exceed " + Integer.MAX_VALUE);
+        }
+    }
+    
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
     public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
-            return true;
+        return productRepository.deleteProductById(id) > 0;
+    }
+    
+    public BatchDeleteResponse deleteProducts(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("Batch delete accepts at most " + MAX_BATCH_IDS + " ids");
+        }
+        if (distinctIds.isEmpty()) {
+            return new BatchDeleteResponse(0, 0);
         }
-        return false;
+        
+        int deleted = productRepository.deleteProductsByIdIn(distinctIds);
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (productCache != null) {
+            distinctIds.forEach(productCache::evict);
+        }
+        return new BatchDeleteResponse(distinctIds.size(), deleted);
     }
     
-    public List<ProductResponse> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProductsByName(String name, Integer limit) {
+        String pattern = "%" + escapeLikePattern(name) + "%";
+        return productRepository.searchByName(pattern, name, Limit.of(clampPageSize(limit)));
     }
     
+    @Transactional(readOnly = true)
     public List<ProductResponse> getProductsWithMinimumQuantity(Integer minQuantity) {
-        return productRepository.findProductsWithMinimumQuantity(minQuantity)
-                .stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return productRepository.findProductsWithMinimumQuantity(minQuantity);
+    }
+    
+    private Map<String, String> validate(ProductRequest request) {
+        Map<String, String> errors = new HashMap<>();
+        if (request == null) {
+            errors.put("product", "Product is required");
+            return errors;
+        }
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        return errors;
+    }
+    
+    private static Product toEntity(ProductRequest request) {
+        return new Product(
+                request.getName(),
+                request.getDescription(),
+                request.getPrice(),
+                request.getQuantity()
+        );
+    }
+    
+    private static int clampPageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    private static String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+    
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(decoded);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
     }
     
-    private ProductResponse convertToResponse(Product product) {
+    ProductResponse convertToResponse(Product product) {
         return new ProductResponse(
                 product.getId(),
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
                 product.getQuantity(),
+                product.getVersion(),
                 product.getCreatedAt(),
                 product.getUpdatedAt()
         );
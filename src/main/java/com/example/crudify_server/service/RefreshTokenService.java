@@ -0,0 +1,137 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.AuthResponse;
+import com.example.crudify_server.entity.RefreshToken;
+import com.example.crudify_server.entity.User;
+import com.example.crudify_server.exception.InvalidRefreshTokenException;
+import com.example.crudify_server.repository.RefreshTokenRepository;
+import com.example.crudify_server.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues short-lived access tokens together with opaque, single-use refresh tokens. Refresh tokens
+ * are stored only as SHA-256 hashes and grouped into families, one per login. Each exchange
+ * retires the presented token and adds its successor to the family.
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final int TOKEN_BYTES = 32;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JwtService jwtService;
+    
+    @Autowired
+    private AccessTokenDenylist accessTokenDenylist;
+    
+    @Value("${app.jwt.refresh-expiration:2592000000}")
+    private long refreshExpiration;
+    
+    // Starts a new family; used on login and registration
+    @Transactional
+    public AuthResponse issueTokens(User user) {
+        return issueTokens(user, UUID.randomUUID());
+    }
+    
+    /**
+     * Exchanges a refresh token for a new access and refresh token pair. A token that was already
+     * exchanged must have been copied, so presenting it revokes its whole family, including the
+     * access tokens that family issued.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse rotate(String refreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .filter(candidate -> candidate.getRevokedAt() == null && candidate.getExpiresAt().isAfter(now))
+                .orElseThrow(InvalidRefreshTokenException::new);
+        
+        if (refreshTokenRepository.markRotated(token.getId(), now) == 0) {
+            revokeFamily(token.getFamilyId(), now);
+            throw new InvalidRefreshTokenException();
+        }
+        
+        // Re-read so role changes and deleted accounts take effect at the next refresh
+        User user = userRepository.findById(token.getUserId())
+                .orElseThrow(InvalidRefreshTokenException::new);
+        return issueTokens(user, token.getFamilyId());
+    }
+    
+    // Logout; unknown tokens are ignored so it is safe to repeat
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+    
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+    }
+    
+    private void revokeFamily(UUID familyId, LocalDateTime now) {
+        List<UUID> accessTokenIds = refreshTokenRepository.findLiveAccessTokenIdsByFamilyId(familyId, now);
+        refreshTokenRepository.revokeFamily(familyId, now);
+        accessTokenDenylist.revoke(accessTokenIds);
+    }
+    
+    private AuthResponse issueTokens(User user, UUID familyId) {
+        LocalDateTime now = LocalDateTime.now();
+        UUID accessTokenId = UUID.randomUUID();
+        String accessToken = jwtService.generateToken(user, accessTokenId);
+        String refreshToken = newToken();
+        
+        refreshTokenRepository.save(new RefreshToken(
+                user.getId(),
+                hash(refreshToken),
+                familyId,
+                accessTokenId,
+                now.plus(Duration.ofMillis(jwtService.getExpiration())),
+                now.plus(Duration.ofMillis(refreshExpiration))
+        ));
+        
+        AuthResponse response = new AuthResponse(accessToken, user);
+        response.setRefreshToken(refreshToken);
+        response.setExpiresIn(jwtService.getExpiration() / 1000);
+        return response;
+    }
+    
+    private String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind mode for stock adjustments on hot products. Deltas are admitted against
+ * an in-memory view of the available quantity under a per-product lock, then coalesced and written
+ * as one UPDATE per product on every flush instead of one row-locking UPDATE per order.
+ * <p>
+ * The in-memory view is only authoritative while a single node admits adjustments, so only the node
+ * holding a PostgreSQL advisory lock buffers them. Every other node, and the holder while the lock is
+ * lost, sends adjustments straight to the database and retries the lock every lock-retry interval,
+ * taking over when the holder stops. The holder resyncs its view on every flush, and the flush
+ * UPDATE still re-checks stock; a delta that no longer fits is logged and dropped. Read replicas are
+ * refused outright.
+ */
+@Service
+public class StockWriteBehindService {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBehindService.class);
+    
+    private static final String LOCK_SQL = "SELECT pg_try_advisory_lock(hashtext('stock-write-behind'))";
+    
+    @Value("${app.stock.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.stock.write-behind.lock-retry-ms:5000}")
+    private long lockRetryMs;
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private ReplicaRoutingContext replicaRoutingContext;
+    
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    
+    private final Map<Long, StockEntry> entries = new ConcurrentHashMap<>();
+    
+    // Session holding the advisory lock; the lock goes with it
+    private Connection lockConnection;
+    private volatile boolean lockHeld;
+    
+    // Serialises flushes, so a shutdown flush cannot retire an entry whose delta is still being written
+    private final Object flushLock = new Object();
+    private long nextLockAttemptMillis;
+    private boolean stopped;
+    
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        if (replicaRoutingContext.isEnabled()) {
+            throw new IllegalStateException(
+                    "app.stock.write-behind.enabled cannot be combined with app.datasource.replica.enabled");
+        }
+        lockHeld = acquireLock();
+        nextLockAttemptMillis = System.currentTimeMillis() + lockRetryMs;
+        if (!lockHeld) {
+            log.info("Stock write-behind is running on another node; adjustments go straight to the database "
+                    + "until its lock is free");
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public Optional<ProductResponse> adjust(Long id, int delta) {
+        if (!lockHeld) {
+            return productService.adjustStock(id, delta);
+        }
+        while (true) {
+            StockEntry entry = entries.get(id);
+            if (entry == null) {
+                // Seed from the primary, not the product cache, which may be a TTL behind
+                Optional<Integer> quantity = replicaRoutingContext.onPrimary(() -> productRepository.findQuantityById(id));
+                if (quantity.isEmpty()) {
+                    return Optional.empty();
+                }
+                entry = entries.computeIfAbsent(id, key -> new StockEntry(quantity.get()));
+            }
+            
+            long available;
+            synchronized (entry) {
+                if (entry.removed) {
+                    continue;
+                }
+                ProductService.checkStock(id, entry.available, delta);
+                entry.available += delta;
+                entry.pending += delta;
+                available = entry.available;
+            }
+            
+            return productService.getProductById(id).map(product -> withQuantity(product, available));
+        }
+    }
+    
+    public ProductResponse applyPending(ProductResponse product) {
+        StockEntry entry = entries.get(product.getId());
+        if (entry == null) {
+            return product;
+        }
+        long available;
+        synchronized (entry) {
+            if (entry.removed) {
+                return product;
+            }
+            available = entry.available;
+        }
+        return withQuantity(product, available);
+    }
+    
+    public List<ProductResponse> applyPending(List<ProductResponse> products) {
+        if (entries.isEmpty()) {
+            return products;
+        }
+        return products.stream()
+                .map(this::applyPending)
+                .collect(Collectors.toList());
+    }
+    
+    @Scheduled(fixedDelayString = "${app.stock.write-behind.flush-interval-ms:100}")
+    public void flush() {
+        synchronized (flushLock) {
+            if (stopped) {
+                return;
+            }
+            if (enabled) {
+                checkLock();
+            }
+            flushEntries();
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        // Later adjustments go straight to the database; the lock is released only once everything is written
+        lockHeld = false;
+        synchronized (flushLock) {
+            stopped = true;
+            flushEntries();
+            closeLockConnection();
+        }
+    }
+    
+    private void flushEntries() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Cache productCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        entries.forEach((id, entry) -> {
+            long delta;
+            synchronized (entry) {
+                delta = entry.pending;
+                entry.pending = 0;
+                if (delta == 0) {
+                    // Idle since the last flush; let the next adjustment reload the quantity
+                    entry.removed = true;
+                    entries.remove(id, entry);
+                    return;
+                }
+            }
+            
+            try {
+                Optional<Product> updated = productRepository.applyQuantityDelta(id, Math.toIntExact(delta));
+                if (updated.isPresent()) {
+                    synchronized (entry) {
+                        // Resync with the database in case another writer touched the row
+                        entry.available = updated.get().getQuantity() + entry.pending;
+                    }
+                    if (productCache != null) {
+                        refreshCached(productCache, updated.get());
+                    }
+                    return;
+                }
+                Optional<Integer> quantity = replicaRoutingContext.onPrimary(() -> productRepository.findQuantityById(id));
+                synchronized (entry) {
+                    if (quantity.isEmpty()) {
+                        log.warn("Dropping pending stock delta {} for deleted product {}", delta + entry.pending, id);
+                    } else {
+                        // Something bypassed write-behind and moved the stock; the admitted deltas no longer fit
+                        log.error("Database refused stock delta {} for product {} with {} in stock; dropping {} admitted units",
+                                delta, id, quantity.get(), delta + entry.pending);
+                    }
+                    entry.removed = true;
+                    entries.remove(id, entry);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to flush stock delta {} for product {}; will retry", delta, id, e);
+                synchronized (entry) {
+                    entry.pending += delta;
+                }
+            }
+        });
+    }
+    
+    // Patches the cached quantity instead of evicting, so a hot product is not reloaded after every flush
+    private void refreshCached(Cache productCache, Product product) {
+        ProductResponse cached = productCache.get(product.getId(), ProductResponse.class);
+        if (cached != null && cached.getVersion() < product.getVersion()) {
+            productCache.put(product.getId(), new ProductResponse(
+                    cached.getId(),
+                    cached.getName(),
+                    cached.getDescription(),
+                    cached.getPrice(),
+                    product.getQuantity(),
+                    product.getVersion(),
+                    cached.getCreatedAt(),
+                    product.getUpdatedAt()
+            ));
+        }
+    }
+    
+    private void checkLock() {
+        if (lockHeld) {
+            try {
+                if (lockConnection != null && lockConnection.isValid(1)) {
+                    return;
+                }
+            } catch (SQLException e) {
+                // Treated as lost
+            }
+            log.error("Lost the stock write-behind lock; stock adjustments go straight to the database");
+            lockHeld = false;
+            closeLockConnection();
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextLockAttemptMillis) {
+            return;
+        }
+        nextLockAttemptMillis = now + lockRetryMs;
+        if (acquireLock()) {
+            log.info("Acquired the stock write-behind lock; buffering stock adjustments on this node");
+            lockHeld = true;
+        }
+    }
+    
+    // Keeps the session open between attempts, so a waiting node does not reconnect on every retry
+    private boolean acquireLock() {
+        try {
+            if (lockConnection == null || !lockConnection.isValid(1)) {
+                closeLockConnection();
+                lockConnection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+            }
+            try (Statement statement = lockConnection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LOCK_SQL)) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Could not acquire the stock write-behind lock", e);
+            closeLockConnection();
+            return false;
+        }
+    }
+    
+    private void closeLockConnection() {
+        if (lockConnection == null) {
+            return;
+        }
+        try {
+            lockConnection.close();
+        } catch (SQLException e) {
+            // The session, and with it the lock, is gone either way
+        }
+        lockConnection = null;
+    }
+    
+    private static ProductResponse withQuantity(ProductResponse product, long quantity) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                (int) quantity,
+                product.getVersion(),
+                product.getCreatedAt(),
+                product.getUpdatedAt()
+        );
+    }
+    
+    private static final class StockEntry {
+        private long available;
+        private long pending;
+        private boolean removed;
+        
+        private StockEntry(long available) {
+            this.available = available;
+        }
+    }
+}
@@ -1,21 +1,30 @@
 package com.example.crudify_server.service;
 
+import com.example.crudify_server.config.ReplicaRoutingContext;
 import com.example.crudify_server.dto.AuthRequest;
 import com.example.crudify_server.dto.AuthResponse;
 import com.example.crudify_server.dto.RegisterRequest;
 import com.example.crudify_server.entity.User;
+import com.example.crudify_server.exception.DuplicateUserException;
 import com.example.crudify_server.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;
@@ -24,36 +33,73 @@ public class UserService implements UserDetailsService {
     private PasswordEncoder passwordEncoder;
     
     @Autowired
-    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
     
     @Autowired
     private AuthenticationManager authenticationManager;
     
+    @Autowired
+    private ReplicaRoutingContext replicaRoutingContext;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Timer loadUserTimer;
+    
+    @PostConstruct
+    void init() {
+        loadUserTimer = Timer.builder("auth.user.load")
+                .description("User lookups for authentication, including the primary fallback")
+                .register(meterRegistry);
+    }
+    
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        // Served by a replica; a miss is re-checked on the primary so a user who just
+        // registered can log in before replication catches up
+        return loadUserTimer.record(() -> userRepository.findByUsername(username)
+                .or(() -> replicaRoutingContext.isEnabled()
+                        ? replicaRoutingContext.onPrimary(() -> userRepository.findByUsername(username))
+                        : Optional.empty()))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
     
-    public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username is already taken!");
-        }
-        
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email is already in use!");
+    /**
+     * Called by the authentication provider after a successful login whose stored hash no longer
+     * matches the configured algorithm or cost; {@code newPassword} is already encoded.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword, LocalDateTime.now());
+        if (user instanceof User entity) {
+            entity.setPassword(newPassword);
         }
-        
+        return user;
+    }
+    
+    public AuthResponse register(RegisterRequest request) {
         User user = new User(
                 request.getUsername(),
                 request.getEmail(),
                 passwordEncoder.encode(request.getPassword())
         );
+        LocalDateTime now = LocalDateTime.now();
         
-        userRepository.save(user);
+        Long id = userRepository.insertIfAbsent(user.getUsername(), user.getEmail(), user.getPassword(),
+                        user.getRole().name(), now)
+                .orElseThrow(() -> new DuplicateUserException(conflictingField(request)));
+        user.setId(id);
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
         
-        String jwtToken = jwtService.generateToken(user);
-        return new AuthResponse(jwtToken, user);
+        return refreshTokenService.issueTokens(user);
+    }
+    
+    // Only reached when the insert hit a unique constraint; read from the primary, where the conflicting row is
+    private DuplicateUserException.Field conflictingField(RegisterRequest request) {
+        boolean usernameTaken = replicaRoutingContext.onPrimary(
+                () -> userRepository.existsByUsername(request.getUsername()));
+        return usernameTaken ? DuplicateUserException.Field.USERNAME : DuplicateUserException.Field.EMAIL;
     }
     
     public AuthResponse authenticate(AuthRequest request) {
@@ -67,7 +113,6 @@ public class UserService implements UserDetailsService {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        String jwtToken = jwtService.generateToken(user);
-        return new AuthResponse(jwtToken, user);
+        return refreshTokenService.issueTokens(user);
     }
 } 
\ No newline at end of file
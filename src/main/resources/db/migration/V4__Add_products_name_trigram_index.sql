@@ -0,0 +1,4 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Trigram GIN index serves ILIKE '%term%' and similarity() ranking for product search
+CREATE INDEX idx_products_name_trgm ON products USING GIN (name gin_trgm_ops);
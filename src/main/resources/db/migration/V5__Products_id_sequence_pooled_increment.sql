@@ -0,0 +1,3 @@
+-- Hibernate's pooled optimizer reserves blocks of 50 ids per nextval() so inserts can be JDBC-batched.
+-- Plain SQL inserts keep using the column default and simply consume a whole block.
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Optimistic locking counter maintained by Hibernate (@Version on Product)
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
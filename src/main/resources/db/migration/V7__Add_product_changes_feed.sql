@@ -0,0 +1,49 @@
+-- Change log behind the product change feed; ids double as SSE event ids for Last-Event-ID resume
+CREATE TABLE product_changes (
+    id BIGSERIAL PRIMARY KEY,
+    tx_id BIGINT NOT NULL DEFAULT txid_current(),
+    product_id BIGINT NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    version BIGINT,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_product_changes_tx_id ON product_changes(tx_id);
+CREATE INDEX idx_product_changes_changed_at ON product_changes(changed_at);
+
+-- Statement-level so bulk inserts and imports log all rows with one INSERT ... SELECT.
+-- The payload is the transaction id; identical notifications within a transaction are
+-- folded by Postgres, so listeners get one wake-up per committed transaction.
+CREATE OR REPLACE FUNCTION record_product_changes() RETURNS trigger AS $$
+DECLARE
+    changed INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO product_changes (product_id, operation, version)
+        SELECT id, TG_OP, version FROM old_rows ORDER BY id;
+    ELSE
+        INSERT INTO product_changes (product_id, operation, version)
+        SELECT id, TG_OP, version FROM new_rows ORDER BY id;
+    END IF;
+    GET DIAGNOSTICS changed = ROW_COUNT;
+    IF changed > 0 THEN
+        PERFORM pg_notify('product_changes', txid_current()::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER products_changes_insert
+    AFTER INSERT ON products
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION record_product_changes();
+
+CREATE TRIGGER products_changes_update
+    AFTER UPDATE ON products
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION record_product_changes();
+
+CREATE TRIGGER products_changes_delete
+    AFTER DELETE ON products
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION record_product_changes();
@@ -0,0 +1,24 @@
+-- Change log ids come from a sequence, so they follow insert order, not commit order: a transaction
+-- still open when a later id committed can commit below it. Every row now records the oldest
+-- transaction still running when it was written; any transaction that commits rows below it later
+-- has an id at or above that value, so a Last-Event-ID resume replays id > N OR tx_id >= it.
+ALTER TABLE product_changes ADD COLUMN snapshot_xmin BIGINT;
+
+CREATE OR REPLACE FUNCTION record_product_changes() RETURNS trigger AS $$
+DECLARE
+    changed INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO product_changes (product_id, operation, version, snapshot_xmin)
+        SELECT id, TG_OP, version, txid_snapshot_xmin(txid_current_snapshot()) FROM old_rows ORDER BY id;
+    ELSE
+        INSERT INTO product_changes (product_id, operation, version, snapshot_xmin)
+        SELECT id, TG_OP, version, txid_snapshot_xmin(txid_current_snapshot()) FROM new_rows ORDER BY id;
+    END IF;
+    GET DIAGNOSTICS changed = ROW_COUNT;
+    IF changed > 0 THEN
+        PERFORM pg_notify('product_changes', txid_current()::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
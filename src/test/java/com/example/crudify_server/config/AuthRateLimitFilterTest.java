@@ -0,0 +1,232 @@
+package com.example.crudify_server.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthRateLimitFilterTest {
+
+    private final AuthRateLimitFilter filter = new AuthRateLimitFilter();
+
+    private MockFilterChain chain;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maximumKeys", 100L);
+        ReflectionTestUtils.setField(filter, "clientIpHeader", "");
+        ReflectionTestUtils.setField(filter, "loginIpCapacity", 3);
+        ReflectionTestUtils.setField(filter, "loginIpPerMinute", 1);
+        ReflectionTestUtils.setField(filter, "loginUsernameCapacity", 2);
+        ReflectionTestUtils.setField(filter, "loginUsernamePerMinute", 1);
+        ReflectionTestUtils.setField(filter, "registerIpCapacity", 1);
+        ReflectionTestUtils.setField(filter, "registerIpPerMinute", 1);
+        ReflectionTestUtils.setField(filter, "registerUsernameCapacity", 0);
+        ReflectionTestUtils.setField(filter, "registerUsernamePerMinute", 0);
+        ReflectionTestUtils.invokeMethod(filter, "init");
+    }
+
+    @Test
+    void doFilter_WhenUsernameLimitExceeded_ShouldReturn429WithRetryAfter() throws Exception {
+        assertTrue(login("10.0.0.1", "alice"));
+        assertTrue(login("10.0.0.1", "alice"));
+
+        assertFalse(login("10.0.0.1", "alice"));
+        assertEquals(429, response.getStatus());
+        assertTrue(Integer.parseInt(response.getHeader("Retry-After")) > 0);
+        assertTrue(response.getContentAsString().contains("Too many requests"));
+    }
+
+    @Test
+    void doFilter_WhenAnotherIpFloodsAUsername_ShouldStillLetItsOwnerLogIn() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            login("10.0.0.66", "alice");
+        }
+        assertFalse(login("10.0.0.66", "alice"));
+
+        assertTrue(login("10.0.0.1", "alice"));
+        assertEquals(body("alice"), new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_WhenIpLimitExceeded_ShouldRejectAnyUsername() throws Exception {
+        login("10.0.0.1", "alice");
+        login("10.0.0.1", "bob");
+        login("10.0.0.1", "carol");
+
+        assertFalse(login("10.0.0.1", "dave"));
+        assertTrue(login("10.0.0.2", "dave"));
+    }
+
+    @Test
+    void doFilter_ShouldPassBufferedBodyDownstream() throws Exception {
+        assertTrue(login("10.0.0.1", "alice"));
+
+        byte[] forwarded = chain.getRequest().getInputStream().readAllBytes();
+        assertEquals(body("alice"), new String(forwarded, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doFilter_WithReadListener_ShouldDeliverBufferedBytesBeforeTheRest() throws Exception {
+        byte[] content = body("alice").getBytes(StandardCharsets.UTF_8);
+        AsyncInputStream original = new AsyncInputStream(content);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", AuthRateLimitFilter.LOGIN_PATH) {
+            @Override
+            public ServletInputStream getInputStream() {
+                return original;
+            }
+        };
+        chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        
+        ServletInputStream forwarded = chain.getRequest().getInputStream();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+        forwarded.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                int b;
+                while (forwarded.isReady() && (b = forwarded.read()) >= 0) {
+                    received.write(b);
+                }
+            }
+            
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+            
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+        original.listener.onAllDataRead();
+        
+        assertEquals(List.of("data", "done"), events);
+        assertEquals(body("alice"), received.toString(StandardCharsets.UTF_8));
+        assertTrue(forwarded.isFinished());
+    }
+
+    @Test
+    void doFilter_WithClientIpHeader_ShouldKeyOnTheLastHeaderEntry() throws Exception {
+        ReflectionTestUtils.setField(filter, "clientIpHeader", "X-Forwarded-For");
+        ReflectionTestUtils.setField(filter, "loginUsernameCapacity", 0);
+        ReflectionTestUtils.invokeMethod(filter, "init");
+        
+        // Spoofed leading entries and different proxy connections all land on the client's bucket
+        for (int i = 0; i < 3; i++) {
+            assertTrue(login("10.0.0." + i, "user" + i, "203.0.113." + i + ", 198.51.100.7"));
+        }
+        assertFalse(login("10.0.0.3", "user3", "spoofed, 198.51.100.7"));
+        assertTrue(login("10.0.0.3", "user3", "198.51.100.8"));
+
+        // Without the header the connection address is used
+        for (int i = 0; i < 3; i++) {
+            assertTrue(login("10.0.0.1", "user" + i));
+        }
+        assertFalse(login("10.0.0.1", "user3"));
+    }
+
+    @Test
+    void doFilter_OnRegisterWithUsernameLimitOff_ShouldLimitByIpOnly() throws Exception {
+        assertTrue(post(AuthRateLimitFilter.REGISTER_PATH, "10.0.0.1", "alice"));
+        assertFalse(post(AuthRateLimitFilter.REGISTER_PATH, "10.0.0.1", "bob"));
+    }
+
+    @Test
+    void doFilter_OnOtherEndpointsOrWhenDisabled_ShouldNotLimit() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(post("/api/products", "10.0.0.1", "alice"));
+        }
+
+        ReflectionTestUtils.setField(filter, "enabled", false);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(login("10.0.0.1", "alice"));
+        }
+    }
+
+    private boolean login(String ip, String username) throws Exception {
+        return post(AuthRateLimitFilter.LOGIN_PATH, ip, username);
+    }
+
+    private boolean login(String ip, String username, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = request(AuthRateLimitFilter.LOGIN_PATH, ip, username);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return send(request);
+    }
+
+    // True when the request was passed on down the chain
+    private boolean post(String path, String ip, String username) throws Exception {
+        return send(request(path, ip, username));
+    }
+
+    private boolean send(MockHttpServletRequest request) throws Exception {
+        response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return chain.getRequest() != null;
+    }
+
+    private static MockHttpServletRequest request(String path, String ip, String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body(username).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String body(String username) {
+        return "{\"username\":\"" + username + "\",\"password\":\"password123\"}";
+    }
+
+    // A container stream in non-blocking mode that only records the listener it was given
+    private static final class AsyncInputStream extends ServletInputStream {
+        
+        private final ByteArrayInputStream content;
+        private ReadListener listener;
+        
+        private AsyncInputStream(byte[] content) {
+            this.content = new ByteArrayInputStream(content);
+        }
+        
+        @Override
+        public int read() {
+            return content.read();
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return content.available() == 0;
+        }
+        
+        @Override
+        public boolean isReady() {
+            return content.available() > 0;
+        }
+        
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.crudify_server.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringJUnitConfig({CacheConfig.class, CacheConfigTest.TestConfig.class})
+class CacheConfigTest {
+
+    @Autowired
+    private CachedService cachedService;
+
+    @Autowired
+    private RecordingTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager.failCommit = false;
+        transactionManager.events.clear();
+        transactionManager.cache().clear();
+    }
+
+    @Test
+    void cachePut_ShouldRunAfterTheTransactionCommits() {
+        assertEquals("product 1", cachedService.update(1L));
+
+        assertEquals(List.of("begin", "commit"), transactionManager.events);
+        assertEquals("product 1", transactionManager.cache().get(1L, String.class));
+    }
+
+    @Test
+    void cachePut_WhenCommitFails_ShouldLeaveTheCacheAlone() {
+        transactionManager.failCommit = true;
+
+        assertThrows(IllegalStateException.class, () -> cachedService.update(2L));
+        assertNull(transactionManager.cache().get(2L));
+    }
+
+    @Configuration
+    static class TestConfig {
+
+        @Bean
+        RecordingTransactionManager transactionManager(CacheManager cacheManager) {
+            return new RecordingTransactionManager(cacheManager);
+        }
+
+        @Bean
+        CachedService cachedService() {
+            return new CachedService();
+        }
+    }
+
+    static class CachedService {
+
+        @Transactional
+        @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+        public String update(Long id) {
+            return "product " + id;
+        }
+    }
+
+    static class RecordingTransactionManager implements PlatformTransactionManager {
+
+        private final CacheManager cacheManager;
+        private final List<String> events = new ArrayList<>();
+        private boolean failCommit;
+
+        RecordingTransactionManager(CacheManager cacheManager) {
+            this.cacheManager = cacheManager;
+        }
+
+        Cache cache() {
+            return cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            events.add("begin");
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            // The cache advice runs outside, so nothing may be cached yet when the commit happens
+            assertNull(cache().get(1L));
+            assertNull(cache().get(2L));
+            if (failCommit) {
+                throw new IllegalStateException("commit failed");
+            }
+            events.add("commit");
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            events.add("rollback");
+        }
+    }
+}
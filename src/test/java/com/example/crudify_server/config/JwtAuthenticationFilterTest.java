@@ -0,0 +1,131 @@
+package com.example.crudify_server.config;
+
+import com.example.crudify_server.entity.User;
+import com.example.crudify_server.service.AccessTokenDenylist;
+import com.example.crudify_server.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private final JwtService jwtService = new JwtService();
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private AccessTokenDenylist accessTokenDenylist;
+
+    @InjectMocks
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(jwtService, "accessTokenDenylist", accessTokenDenylist);
+        ReflectionTestUtils.setField(jwtService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.USER_DETAILS_CACHE);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "cacheManager", cacheManager);
+
+        testUser = new User("testuser", "test@example.com", "encodedPassword");
+        testUser.setId(7L);
+        testUser.setRole(User.Role.ADMIN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_WithClaimsToken_ShouldAuthenticateWithoutUserLookup() throws Exception {
+        filter(jwtService.generateToken(testUser));
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("testuser", authentication.getName());
+        assertEquals(7L, ((User) authentication.getPrincipal()).getId());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void doFilter_WithTokenWithoutClaims_ShouldFallBackToUserLookup() throws Exception {
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(testUser);
+
+        filter(jwtService.generateToken(new HashMap<>(), testUser));
+
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(userDetailsService).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void doFilter_WithUserDetailsCache_ShouldLookUpOncePerTtl() throws Exception {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "userDetailsCacheEnabled", true);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(testUser);
+        String token = jwtService.generateToken(testUser);
+
+        filter(token);
+        SecurityContextHolder.clearContext();
+        filter(token);
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, times(1)).loadUserByUsername("testuser");
+    }
+
+    @Test
+    void doFilter_WithTamperedToken_ShouldLeaveRequestUnauthenticated() throws Exception {
+        String token = jwtService.generateToken(testUser);
+
+        filter(token.substring(0, token.length() - 2) + "xx");
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilter_WithRevokedToken_ShouldLeaveRequestUnauthenticated() throws Exception {
+        UUID tokenId = UUID.randomUUID();
+        when(accessTokenDenylist.isRevoked(tokenId.toString())).thenReturn(true);
+
+        filter(jwtService.generateToken(testUser, tokenId));
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private void filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+}
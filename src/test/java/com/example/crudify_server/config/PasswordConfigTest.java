@@ -0,0 +1,104 @@
+package com.example.crudify_server.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordConfigTest {
+
+    private final PasswordEncoder encoder = PasswordConfig.passwordEncoder(PasswordConfig.BCRYPT, 5, 1000, true);
+
+    @Test
+    void encode_ShouldPrefixAlgorithmId() {
+        String encoded = encoder.encode("password123");
+
+        assertTrue(encoded.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("password123", encoded));
+        assertFalse(encoder.upgradeEncoding(encoded));
+    }
+
+    @Test
+    void matches_WithLegacyUnprefixedHash_ShouldMatchAndRequestUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertTrue(encoder.matches("password123", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void upgradeEncoding_WithPinnedStrength_ShouldRequestUpgradeInBothDirections() {
+        PasswordEncoder weaker = PasswordConfig.passwordEncoder(PasswordConfig.BCRYPT, 4, 1000, true);
+        PasswordEncoder stronger = PasswordConfig.passwordEncoder(PasswordConfig.BCRYPT, 6, 1000, true);
+
+        assertTrue(encoder.upgradeEncoding(weaker.encode("password123")));
+        assertTrue(encoder.upgradeEncoding(stronger.encode("password123")));
+    }
+
+    @Test
+    void upgradeEncoding_WithCalibratedStrength_ShouldOnlyUpgradeWeakerHashes() {
+        PasswordEncoder calibrated = PasswordConfig.passwordEncoder(PasswordConfig.BCRYPT, 5, 1000, false);
+        PasswordEncoder weaker = PasswordConfig.passwordEncoder(PasswordConfig.BCRYPT, 4, 1000, false);
+        PasswordEncoder stronger = PasswordConfig.passwordEncoder(PasswordConfig.BCRYPT, 6, 1000, false);
+
+        assertTrue(calibrated.upgradeEncoding(weaker.encode("password123")));
+        assertFalse(calibrated.upgradeEncoding(calibrated.encode("password123")));
+        // A node that calibrated higher must not be undone by one that calibrated lower
+        assertFalse(calibrated.upgradeEncoding(stronger.encode("password123")));
+    }
+
+    @Test
+    void upgradeEncoding_WhenAlgorithmChanged_ShouldRequestUpgradeAndStillMatchOldHashes() {
+        PasswordEncoder pbkdf2 = PasswordConfig.passwordEncoder(PasswordConfig.PBKDF2, 5, 1000, true);
+        String bcryptHash = encoder.encode("password123");
+        String pbkdf2Hash = pbkdf2.encode("password123");
+
+        assertTrue(pbkdf2Hash.startsWith("{pbkdf2}1000$"));
+        assertTrue(pbkdf2.matches("password123", bcryptHash));
+        assertTrue(pbkdf2.upgradeEncoding(bcryptHash));
+        assertFalse(pbkdf2.upgradeEncoding(pbkdf2Hash));
+        assertTrue(encoder.matches("password123", pbkdf2Hash));
+    }
+
+    @Test
+    void matches_WithPbkdf2HashFromAnotherIterationCount_ShouldMatchAndRequestUpgrade() {
+        PasswordEncoder before = PasswordConfig.passwordEncoder(PasswordConfig.PBKDF2, 5, 1000, false);
+        PasswordEncoder after = PasswordConfig.passwordEncoder(PasswordConfig.PBKDF2, 5, 2000, false);
+        String hash = before.encode("password123");
+
+        assertTrue(after.matches("password123", hash));
+        assertFalse(after.matches("wrong", hash));
+        assertTrue(after.upgradeEncoding(hash));
+        assertFalse(after.upgradeEncoding(after.encode("password123")));
+        // A node that calibrated higher must not be undone by one that calibrated lower
+        assertTrue(before.matches("password123", after.encode("password123")));
+        assertFalse(before.upgradeEncoding(after.encode("password123")));
+    }
+
+    @Test
+    void matches_WithPbkdf2HashWithoutIterationCount_ShouldUseConfiguredCountAndRequestUpgrade() {
+        PasswordEncoder pbkdf2 = PasswordConfig.passwordEncoder(PasswordConfig.PBKDF2, 5, 1000, true);
+        String legacy = "{pbkdf2}" + new Pbkdf2PasswordEncoder("", 16, 1000,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256).encode("password123");
+
+        assertTrue(pbkdf2.matches("password123", legacy));
+        assertTrue(pbkdf2.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void timedPasswordEncoder_ShouldRecordEncodeAndMatchesSeparately() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordEncoder timed = new PasswordConfig.TimedPasswordEncoder(encoder, meterRegistry);
+
+        String encoded = timed.encode("password123");
+        assertTrue(timed.matches("password123", encoded));
+        assertTrue(timed.matches("password123", encoded));
+
+        assertEquals(1, meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count());
+    }
+}
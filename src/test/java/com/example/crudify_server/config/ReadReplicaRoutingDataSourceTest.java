@@ -0,0 +1,83 @@
+package com.example.crudify_server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingContext routingContext;
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingContext = new ReplicaRoutingContext();
+        ReflectionTestUtils.setField(routingContext, "enabled", true);
+        ReflectionTestUtils.setField(routingContext, "readYourWritesMs", 60_000L);
+        routingContext.init();
+
+        routingDataSource = new ReadReplicaRoutingDataSource(mock(DataSource.class),
+                List.of(mock(HikariDataSource.class), mock(HikariDataSource.class)), routingContext);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldRoundRobinAcrossReplicas() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void writeTransaction_ShouldUsePrimary() {
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void onPrimary_ShouldOverrideReadOnlyRouting() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Object key = routingContext.onPrimary(routingDataSource::determineCurrentLookupKey);
+
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, key);
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readAfterCommittedWrite_ShouldStickToPrimaryForSameUser() {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+
+        routingDataSource.determineCurrentLookupKey();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReadReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("bob", null, List.of()));
+
+        assertEquals("replica-0", routingDataSource.determineCurrentLookupKey());
+    }
+}
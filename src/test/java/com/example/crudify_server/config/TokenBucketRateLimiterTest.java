@@ -0,0 +1,59 @@
+package com.example.crudify_server.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenReportWaitUntilNextToken() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 60, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire("client"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(600), limiter.tryAcquire("client"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertTrue(limiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepSeparateBucketsPerKey() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void tryAcquire_AfterFullRefill_ShouldAllowBurstAgainAndEvictIdleKeys() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 60, 100, clock::get);
+        limiter.tryAcquire("client");
+        limiter.tryAcquire("client");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+
+        assertEquals(0, limiter.estimatedSize());
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertEquals(0, limiter.tryAcquire("client"));
+        assertTrue(limiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void constructor_WithNonPositiveLimits_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 60, 100));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(5, 0, 100));
+    }
+}
@@ -2,7 +2,14 @@ package com.example.crudify_server.controller;
 
 import com.example.crudify_server.dto.AuthRequest;
 import com.example.crudify_server.dto.AuthResponse;
+import com.example.crudify_server.dto.RefreshTokenRequest;
 import com.example.crudify_server.dto.RegisterRequest;
+import com.example.crudify_server.exception.DuplicateUserException;
+import com.example.crudify_server.exception.InvalidRefreshTokenException;
+import com.example.crudify_server.exception.ServiceOverloadedException;
+import com.example.crudify_server.service.JwtService;
+import com.example.crudify_server.service.PasswordHashingService;
+import com.example.crudify_server.service.RefreshTokenService;
 import com.example.crudify_server.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,17 +19,26 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @ExtendWith(MockitoExtension.class)
-@WebMvcTest(AuthController.class)
+// Rate limiting has its own tests; here it would trip on the repeated test user
+@WebMvcTest(controllers = AuthController.class, properties = "app.rate-limit.enabled=false")
 @Import(TestSecurityConfig.class)
 class AuthControllerTest {
 
@@ -32,6 +48,18 @@ class AuthControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private CacheManager cacheManager;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,13 +72,25 @@ class AuthControllerTest {
         validRegisterRequest = new RegisterRequest("testuser", "test@example.com", "password123");
         validAuthRequest = new AuthRequest("testuser", "password123");
         authResponse = new AuthResponse("jwt-token", "testuser", "test@example.com", "USER");
+        // Run hashing-pool work inline; failures still surface through the future
+        when(passwordHashingService.submit(any())).thenAnswer(invocation -> {
+            Supplier<?> task = invocation.getArgument(0);
+            return CompletableFuture.supplyAsync(task, Runnable::run);
+        });
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
     }
 
     @Test
     void registerUser_WithValidRequest_ShouldReturnAuthResponse() throws Exception {
         when(userService.register(any(RegisterRequest.class))).thenReturn(authResponse);
 
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(validRegisterRequest)))
                 .andExpect(status().isOk())
@@ -76,29 +116,31 @@ class AuthControllerTest {
     }
 
     @Test
-    void registerUser_WithDuplicateUsername_ShouldReturnBadRequest() throws Exception {
+    void registerUser_WithDuplicateUsername_ShouldReturnConflict() throws Exception {
         when(userService.register(any(RegisterRequest.class)))
-                .thenThrow(new RuntimeException("Username is already taken!"));
+                .thenThrow(new DuplicateUserException(DuplicateUserException.Field.USERNAME));
 
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(validRegisterRequest)))
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.message").value("Username is already taken!"));
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Conflict"))
+                .andExpect(jsonPath("$.errors.username").value("Username is already taken!"));
 
         verify(userService, times(1)).register(any(RegisterRequest.class));
     }
 
     @Test
-    void registerUser_WithDuplicateEmail_ShouldReturnBadRequest() throws Exception {
+    void registerUser_WithDuplicateEmail_ShouldReturnConflict() throws Exception {
         when(userService.register(any(RegisterRequest.class)))
-                .thenThrow(new RuntimeException("Email is already in use!"));
+                .thenThrow(new DuplicateUserException(DuplicateUserException.Field.EMAIL));
 
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(validRegisterRequest)))
-                .andExpected(status().isBadRequest())
-                .andExpect(jsonPath("$.message").value("Email is already in use!"));
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Conflict"))
+                .andExpect(jsonPath("$.errors.email").value("Email is already in use!"));
 
         verify(userService, times(1)).register(any(RegisterRequest.class));
     }
@@ -107,7 +149,7 @@ class AuthControllerTest {
     void loginUser_WithValidCredentials_ShouldReturnAuthResponse() throws Exception {
         when(userService.authenticate(any(AuthRequest.class))).thenReturn(authResponse);
 
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(validAuthRequest)))
                 .andExpect(status().isOk())
@@ -125,7 +167,7 @@ class AuthControllerTest {
         when(userService.authenticate(any(AuthRequest.class)))
                 .thenThrow(new RuntimeException("Invalid credentials"));
 
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(validAuthRequest)))
                 .andExpect(status().isBadRequest())
@@ -163,4 +205,52 @@ class AuthControllerTest {
 
         verify(userService, never()).authenticate(any(AuthRequest.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void loginUser_WhenHashingPoolIsSaturated_ShouldReturnServiceUnavailable() throws Exception {
+        doThrow(new ServiceOverloadedException("Too many concurrent login or registration requests", 1))
+                .when(passwordHashingService).submit(any());
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validAuthRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(userService, never()).authenticate(any(AuthRequest.class));
+    }
+
+    @Test
+    void refresh_WithValidToken_ShouldReturnNewTokenPair() throws Exception {
+        authResponse.setRefreshToken("next-refresh-token");
+        when(refreshTokenService.rotate("refresh-token")).thenReturn(authResponse);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("jwt-token"))
+                .andExpect(jsonPath("$.refreshToken").value("next-refresh-token"));
+    }
+
+    @Test
+    void refresh_WithInvalidToken_ShouldReturnUnauthorized() throws Exception {
+        when(refreshTokenService.rotate("stale-token")).thenThrow(new InvalidRefreshTokenException());
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("stale-token"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Unauthorized"));
+    }
+
+    @Test
+    void logout_ShouldRevokeRefreshTokenAndReturnNoContent() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh-token"))))
+                .andExpect(status().isNoContent());
+
+        verify(refreshTokenService).revoke("refresh-token");
+    }
+}
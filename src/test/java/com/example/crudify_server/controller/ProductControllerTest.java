@@ -1,26 +1,51 @@
 package com.example.crudify_server.controller;
 
+import com.example.crudify_server.dto.BatchDeleteResponse;
+import com.example.crudify_server.dto.BulkProductResponse;
+import com.example.crudify_server.dto.BulkProductResult;
+import com.example.crudify_server.dto.ProductBatchResponse;
+import com.example.crudify_server.dto.ProductImportResponse;
+import com.example.crudify_server.dto.ProductPage;
 import com.example.crudify_server.dto.ProductRequest;
 import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.dto.StockAdjustmentRequest;
+import com.example.crudify_server.service.JwtService;
+import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.exception.InsufficientStockException;
+import com.example.crudify_server.exception.InvalidCursorException;
+import com.example.crudify_server.service.ProductChangeFeedService;
+import com.example.crudify_server.service.ProductImportService;
 import com.example.crudify_server.service.ProductService;
+import com.example.crudify_server.service.StockWriteBehindService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +61,21 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private StockWriteBehindService stockWriteBehindService;
+
+    @MockBean
+    private ProductChangeFeedService productChangeFeedService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private CacheManager cacheManager;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,15 +94,163 @@ class ProductControllerTest {
     @Test
     void getAllProducts_ShouldReturnProductList() throws Exception {
         List<ProductResponse> products = Arrays.asList(testProductResponse);
-        when(productService.getAllProducts()).thenReturn(products);
+        when(productService.getAllProducts(isNull(), isNull())).thenReturn(new ProductPage(products, null));
 
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].name").value("Test Product"))
                 .andExpect(jsonPath("$[0].price").value(99.99));
     }
 
+    @Test
+    void getAllProducts_WithMorePages_ShouldReturnNextCursorHeader() throws Exception {
+        List<ProductResponse> products = Arrays.asList(testProductResponse);
+        when(productService.getAllProducts("MA", 1)).thenReturn(new ProductPage(products, "MQ"));
+
+        mockMvc.perform(get("/api/products")
+                .param("cursor", "MA")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, "MQ"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAllProducts_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(productService.getAllProducts(eq("bogus"), isNull()))
+                .thenThrow(new InvalidCursorException("bogus"));
+
+        mockMvc.perform(get("/api/products").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.error").value("Invalid cursor: bogus"));
+    }
+
+    @Test
+    void getAllProducts_WhenInternalArgumentCheckFails_ShouldReturnServerErrorWithoutDetails() throws Exception {
+        when(productService.getAllProducts(isNull(), isNull()))
+                .thenThrow(new IllegalArgumentException("integer overflow"));
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.errors.error").value("An unexpected error occurred"));
+    }
+
+    @Test
+    void exportProducts_AsNdjson_ShouldStreamOneObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> consumer = invocation.getArgument(0);
+            consumer.accept(testProductResponse);
+            consumer.accept(testProductResponse);
+            return null;
+        }).when(productService).exportProducts(any());
+
+        MvcResult result = mockMvc.perform(get("/api/products/export")
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Test Product\""));
+    }
+
+    @Test
+    void exportProducts_AsCsv_ShouldStreamHeaderAndEscapedRows() throws Exception {
+        ProductResponse tricky = new ProductResponse(2L, "Cable, \"USB-C\"", null,
+                new BigDecimal("5.50"), 3, LocalDateTime.now(), LocalDateTime.now());
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> consumer = invocation.getArgument(0);
+            consumer.accept(tricky);
+            return null;
+        }).when(productService).exportProducts(any());
+
+        MvcResult result = mockMvc.perform(get("/api/products/export")
+                .accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"products.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals("id,name,description,price,quantity,created_at,updated_at", lines[0]);
+        assertTrue(lines[1].startsWith("2,\"Cable, \"\"USB-C\"\"\",,5.50,3,"));
+    }
+
+    @Test
+    void exportProducts_WithWildcardOrNoAccept_ShouldDefaultToNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> consumer = invocation.getArgument(0);
+            consumer.accept(testProductResponse);
+            return null;
+        }).when(productService).exportProducts(any());
+
+        MvcResult wildcard = mockMvc.perform(get("/api/products/export")
+                .accept(MediaType.ALL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(wildcard))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        MvcResult noAccept = mockMvc.perform(get("/api/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(noAccept))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    void exportProducts_WithFormatParameter_ShouldOverrideAccept() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products/export")
+                .param("format", "csv")
+                .accept(MediaType.ALL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(body.startsWith("id,name,description,price,quantity,created_at,updated_at"));
+
+        mockMvc.perform(get("/api/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getProductsByIds_ShouldReturnItemsAndMissingIds() throws Exception {
+        when(productService.getProductsByIds(Arrays.asList(1L, 7L)))
+                .thenReturn(new ProductBatchResponse(List.of(testProductResponse), List.of(7L)));
+
+        mockMvc.perform(get("/api/products/batch").param("ids", "1,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Test Product"))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+    }
+
+    @Test
+    void getProductsByIdsInBody_ShouldReturnItemsAndMissingIds() throws Exception {
+        when(productService.getProductsByIds(Arrays.asList(1L, 7L)))
+                .thenReturn(new ProductBatchResponse(List.of(testProductResponse), List.of(7L)));
+
+        mockMvc.perform(post("/api/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 7]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(7));
+    }
+
     @Test
     void getProductById_WhenExists_ShouldReturnProduct() throws Exception {
         when(productService.getProductById(1L)).thenReturn(Optional.of(testProductResponse));
@@ -74,6 +262,91 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(99.99));
     }
 
+    @Test
+    void getProductById_ShouldReturnStrongETagFromVersion() throws Exception {
+        testProductResponse.setVersion(3L);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductResponse));
+
+        mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void getProductById_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(productService.getProductVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getProductById(anyLong());
+    }
+
+    @Test
+    void getProductById_WithStaleIfNoneMatch_ShouldReturnProduct() throws Exception {
+        testProductResponse.setVersion(4L);
+        when(productService.getProductVersion(1L)).thenReturn(Optional.of(4L));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductResponse));
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.name").value("Test Product"));
+    }
+
+    @Test
+    void searchProducts_WithMatchingWeakETag_ShouldReturnNotModified() throws Exception {
+        List<ProductResponse> products = Arrays.asList(testProductResponse);
+        when(productService.searchProductsByName(eq("Test"), isNull())).thenReturn(products);
+
+        String eTag = mockMvc.perform(get("/api/products/search").param("name", "Test"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        assertTrue(eTag.startsWith("W/\""));
+        mockMvc.perform(get("/api/products/search").param("name", "Test").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getAllProducts_WithWriteBehind_ShouldChangeETagWhenPendingQuantityChanges() throws Exception {
+        testProductResponse.setVersion(3L);
+        ProductResponse adjusted = new ProductResponse(1L, "Test Product", "Test Description",
+                new BigDecimal("99.99"), 7, 3L, testProductResponse.getCreatedAt(), testProductResponse.getUpdatedAt());
+        when(stockWriteBehindService.isEnabled()).thenReturn(true);
+        when(productService.getAllProducts(isNull(), isNull()))
+                .thenReturn(new ProductPage(List.of(testProductResponse), null));
+        when(stockWriteBehindService.applyPending(anyList()))
+                .thenReturn(List.of(testProductResponse))
+                .thenReturn(List.of(adjusted));
+
+        String eTag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].quantity").value(7));
+    }
+
+    @Test
+    void getProductById_WithWriteBehind_ShouldRevalidateAgainstEffectiveQuantity() throws Exception {
+        testProductResponse.setVersion(3L);
+        when(stockWriteBehindService.isEnabled()).thenReturn(true);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProductResponse));
+        when(stockWriteBehindService.applyPending(testProductResponse)).thenReturn(testProductResponse);
+
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-" + testProductResponse.getQuantity() + "\""));
+        mockMvc.perform(get("/api/products/1").header("If-None-Match", "\"3-" + testProductResponse.getQuantity() + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getProductVersion(anyLong());
+    }
+
     @Test
     void getProductById_WhenNotExists_ShouldReturnNotFound() throws Exception {
         when(productService.getProductById(anyLong())).thenReturn(Optional.empty());
@@ -104,6 +377,45 @@ class ProductControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createProducts_ShouldReturnPerItemResults() throws Exception {
+        BulkProductResponse bulkResponse = new BulkProductResponse(Arrays.asList(
+                BulkProductResult.created(0, 1L),
+                BulkProductResult.rejected(1, Map.of("name", "Name is required"))));
+        when(productService.createProducts(anyList())).thenReturn(bulkResponse);
+
+        mockMvc.perform(post("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(testProductRequest, new ProductRequest()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.results[1].errors.name").value("Name is required"));
+    }
+
+    @Test
+    void importProducts_WithCsvBody_ShouldReportAcceptedAndRejected() throws Exception {
+        when(productImportService.importCsv(any())).thenReturn(new ProductImportResponse(2, 1, List.of(3L)));
+
+        mockMvc.perform(post("/api/products/import")
+                .contentType("text/csv")
+                .content("name,description,price,quantity\nA,,1.00,1\nB,,2.00,2\nC,,-1,3\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedRows[0]").value(3));
+    }
+
+    @Test
+    void importProducts_WithJsonBody_ShouldReturnUnsupportedMediaType() throws Exception {
+        mockMvc.perform(post("/api/products/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
     @Test
     void updateProduct_WhenExists_ShouldReturnUpdatedProduct() throws Exception {
         when(productService.updateProduct(eq(1L), any(ProductRequest.class)))
@@ -128,6 +440,60 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateProduct_WhenConcurrentlyModified_ShouldReturnConflict() throws Exception {
+        when(productService.updateProduct(eq(1L), any(ProductRequest.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        mockMvc.perform(put("/api/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testProductRequest)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void adjustStock_WhenEnoughStock_ShouldReturnProduct() throws Exception {
+        when(productService.adjustStock(1L, -2)).thenReturn(Optional.of(testProductResponse));
+
+        mockMvc.perform(post("/api/products/1/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StockAdjustmentRequest(-2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Test Product"));
+    }
+
+    @Test
+    void adjustStock_WithWriteBehindEnabled_ShouldBufferDelta() throws Exception {
+        when(stockWriteBehindService.isEnabled()).thenReturn(true);
+        when(stockWriteBehindService.adjust(1L, -2)).thenReturn(Optional.of(testProductResponse));
+
+        mockMvc.perform(post("/api/products/1/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StockAdjustmentRequest(-2))))
+                .andExpect(status().isOk());
+
+        verify(productService, never()).adjustStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void adjustStock_WhenInsufficientStock_ShouldReturnConflict() throws Exception {
+        when(productService.adjustStock(1L, -100)).thenThrow(new InsufficientStockException(1L, -100));
+
+        mockMvc.perform(post("/api/products/1/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new StockAdjustmentRequest(-100))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Insufficient stock"));
+    }
+
+    @Test
+    void adjustStock_WithoutDelta_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/products/1/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteProduct_WhenExists_ShouldReturnNoContent() throws Exception {
         when(productService.deleteProduct(1L)).thenReturn(true);
@@ -144,10 +510,20 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void deleteProducts_ShouldReturnDeletedCount() throws Exception {
+        when(productService.deleteProducts(Arrays.asList(1L, 2L, 3L))).thenReturn(new BatchDeleteResponse(3, 2));
+
+        mockMvc.perform(delete("/api/products").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
     @Test
     void searchProducts_ShouldReturnMatchingProducts() throws Exception {
         List<ProductResponse> products = Arrays.asList(testProductResponse);
-        when(productService.searchProductsByName("Test")).thenReturn(products);
+        when(productService.searchProductsByName(eq("Test"), isNull())).thenReturn(products);
 
         mockMvc.perform(get("/api/products/search")
                 .param("name", "Test"))
@@ -155,4 +531,36 @@ class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].name").value("Test Product"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void streamChanges_ShouldResumeFromLastEventId() throws Exception {
+        when(productChangeFeedService.subscribe(42L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/products/changes")
+                .header("Last-Event-ID", "42")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(productChangeFeedService).subscribe(42L);
+    }
+
+    @Test
+    void streamChanges_WithoutLastEventId_ShouldStartLive() throws Exception {
+        when(productChangeFeedService.subscribe(null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/products/changes").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(productChangeFeedService).subscribe(null);
+    }
+
+    @Test
+    void streamChanges_WithMalformedLastEventId_ShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/api/products/changes")
+                .header("Last-Event-ID", "abc")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+
+        verify(productChangeFeedService, never()).subscribe(any());
+    }
+}
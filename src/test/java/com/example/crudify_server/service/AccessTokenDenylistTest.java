@@ -0,0 +1,115 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccessTokenDenylistTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Spy
+    private ReplicaRoutingContext replicaRoutingContext = new ReplicaRoutingContext();
+
+    @InjectMocks
+    private AccessTokenDenylist accessTokenDenylist;
+
+    private final UUID revokedAtStartup = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accessTokenDenylist, "jwtExpiration", 900_000L);
+        ReflectionTestUtils.setField(accessTokenDenylist, "expectedEntries", 1_000L);
+        ReflectionTestUtils.setField(accessTokenDenylist, "falsePositiveRate", 0.001);
+        when(refreshTokenRepository.findRevokedAccessTokenIds(any(LocalDateTime.class)))
+                .thenReturn(List.of(revokedAtStartup));
+        ReflectionTestUtils.invokeMethod(accessTokenDenylist, "init");
+    }
+
+    @Test
+    void isRevoked_ForUnrevokedToken_ShouldNotQueryTheTable() {
+        for (int i = 0; i < 100; i++) {
+            assertFalse(accessTokenDenylist.isRevoked(UUID.randomUUID().toString()));
+        }
+        assertFalse(accessTokenDenylist.isRevoked(null));
+
+        verify(refreshTokenRepository, atMost(1)).existsByAccessTokenIdAndRevokedAtIsNotNull(any());
+    }
+
+    @Test
+    void isRevoked_ForTokenLoadedAtStartup_ShouldConfirmOnceAgainstTheTable() {
+        when(refreshTokenRepository.existsByAccessTokenIdAndRevokedAtIsNotNull(revokedAtStartup)).thenReturn(true);
+
+        assertTrue(accessTokenDenylist.isRevoked(revokedAtStartup.toString()));
+        assertTrue(accessTokenDenylist.isRevoked(revokedAtStartup.toString()));
+
+        verify(refreshTokenRepository, times(1)).existsByAccessTokenIdAndRevokedAtIsNotNull(revokedAtStartup);
+    }
+
+    @Test
+    void reads_ShouldAllGoToThePrimary() {
+        when(refreshTokenRepository.existsByAccessTokenIdAndRevokedAtIsNotNull(revokedAtStartup)).thenReturn(true);
+
+        accessTokenDenylist.isRevoked(revokedAtStartup.toString());
+        accessTokenDenylist.sync();
+        accessTokenDenylist.rebuild();
+
+        // init's rebuild, isRevoked, sync and the second rebuild
+        verify(replicaRoutingContext, times(4)).onPrimary(any());
+    }
+
+    @Test
+    void revoke_ShouldTakeEffectImmediately() {
+        UUID tokenId = UUID.randomUUID();
+        when(refreshTokenRepository.existsByAccessTokenIdAndRevokedAtIsNotNull(tokenId)).thenReturn(true);
+
+        accessTokenDenylist.revoke(List.of(tokenId));
+
+        assertTrue(accessTokenDenylist.isRevoked(tokenId.toString()));
+    }
+
+    @Test
+    void sync_ShouldPickUpRevocationsMadeElsewhere() {
+        UUID tokenId = UUID.randomUUID();
+        when(refreshTokenRepository.findRevokedAccessTokenIdsSince(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(tokenId));
+        when(refreshTokenRepository.existsByAccessTokenIdAndRevokedAtIsNotNull(tokenId)).thenReturn(true);
+
+        accessTokenDenylist.sync();
+
+        assertTrue(accessTokenDenylist.isRevoked(tokenId.toString()));
+    }
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("member-" + i));
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtServiceTest {
+
+    private final AccessTokenDenylist accessTokenDenylist = mock(AccessTokenDenylist.class);
+
+    private JwtService jwtService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newJwtService(60_000L);
+        testUser = new User("testuser", "test@example.com", "encodedPassword");
+        testUser.setId(1L);
+    }
+
+    @Test
+    void verify_ShouldReturnClaimsWithUserIdAndRole() {
+        Claims claims = jwtService.verify(jwtService.generateToken(testUser));
+
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(1, claims.get(JwtService.CLAIM_USER_ID, Number.class).intValue());
+        assertEquals("USER", claims.get(JwtService.CLAIM_ROLE, String.class));
+        assertTrue(jwtService.isTokenValid(claims, testUser));
+    }
+
+    @Test
+    void verify_WhenTokenSeenBefore_ShouldReuseVerifiedClaims() {
+        String token = jwtService.generateToken(testUser);
+
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    void verify_WithTamperedToken_ShouldThrow() {
+        String token = jwtService.generateToken(testUser);
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertThrows(JwtException.class, () -> jwtService.verify(forged));
+    }
+
+    @Test
+    void verify_WithExpiredToken_ShouldThrow() {
+        JwtService expiring = newJwtService(-1_000L);
+        String token = expiring.generateToken(testUser);
+
+        assertThrows(ExpiredJwtException.class, () -> expiring.verify(token));
+    }
+
+    @Test
+    void generateToken_ShouldUseTokenIdAsJti() {
+        UUID tokenId = UUID.randomUUID();
+
+        Claims claims = jwtService.verify(jwtService.generateToken(testUser, tokenId));
+
+        assertEquals(tokenId.toString(), claims.getId());
+    }
+
+    @Test
+    void verify_WhenRevokedAfterCaching_ShouldThrow() {
+        UUID tokenId = UUID.randomUUID();
+        String token = jwtService.generateToken(testUser, tokenId);
+        jwtService.verify(token);
+
+        when(accessTokenDenylist.isRevoked(tokenId.toString())).thenReturn(true);
+
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    private JwtService newJwtService(long expiration) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "accessTokenDenylist", accessTokenDenylist);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "secretKey",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaximumSize", 100L);
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    void setUp() {
+        passwordHashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(passwordHashingService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "retryAfterSeconds", 2L);
+        passwordHashingService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldRunTaskOffTheCallingThreadAndRecordLatency() throws Exception {
+        String threadName = passwordHashingService.submit(() -> Thread.currentThread().getName())
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(threadName.startsWith("password-hashing-"));
+        assertEquals(1, meterRegistry.get("auth.hashing.task").timer().count());
+        assertEquals(1, meterRegistry.get("executor.pool.core")
+                .tag("name", PasswordHashingService.POOL_NAME).gauge().value());
+    }
+
+    @Test
+    void submit_WhenPoolAndQueueAreFull_ShouldRejectFast() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = passwordHashingService.submit(() -> {
+            running.countDown();
+            return await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = passwordHashingService.submit(() -> true);
+
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> passwordHashingService.submit(() -> true));
+
+        assertEquals(2, exception.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("executor.queued")
+                .tag("name", PasswordHashingService.POOL_NAME).gauge().value());
+        assertEquals(1, meterRegistry.get("auth.hashing.rejected").functionCounter().count());
+        release.countDown();
+        assertTrue(busy.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.dto.ProductChangeEvent;
+import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheInvalidatorTest {
+
+    @Mock
+    private ProductChangeListener productChangeListener;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ReplicaRoutingContext replicaRoutingContext;
+
+    @InjectMocks
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.PRODUCTS_CACHE);
+        ReflectionTestUtils.setField(productCacheInvalidator, "cacheManager", cacheManager);
+        cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+    }
+
+    @Test
+    void onChange_WithNewerVersion_ShouldReloadFromPrimary() {
+        cache.put(1L, product(1L, 3L));
+        when(replicaRoutingContext.onPrimary(any())).thenAnswer(invocation -> {
+            Supplier<?> action = invocation.getArgument(0);
+            return action.get();
+        });
+        // The real method is a @CachePut; stand in for it
+        when(productService.reloadProduct(1L)).thenAnswer(invocation -> {
+            cache.put(1L, product(1L, 4L));
+            return Optional.of(product(1L, 4L));
+        });
+
+        productCacheInvalidator.onChange(event(ProductChangeEvent.Type.UPDATED, 1L, 4L));
+
+        verify(replicaRoutingContext).onPrimary(any());
+        assertEquals(4L, cache.get(1L, ProductResponse.class).getVersion());
+    }
+
+    @Test
+    void onChange_WhenReloadFindsNothing_ShouldEvict() {
+        cache.put(1L, product(1L, 3L));
+        when(replicaRoutingContext.onPrimary(any())).thenAnswer(invocation -> {
+            Supplier<?> action = invocation.getArgument(0);
+            return action.get();
+        });
+        when(productService.reloadProduct(1L)).thenReturn(Optional.empty());
+
+        productCacheInvalidator.onChange(event(ProductChangeEvent.Type.UPDATED, 1L, 4L));
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void onChange_WithSameVersion_ShouldKeepEntry() {
+        cache.put(1L, product(1L, 4L));
+
+        productCacheInvalidator.onChange(event(ProductChangeEvent.Type.UPDATED, 1L, 4L));
+
+        assertNotNull(cache.get(1L));
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void onChange_WhenDeleted_ShouldEvict() {
+        cache.put(1L, product(1L, 4L));
+
+        productCacheInvalidator.onChange(event(ProductChangeEvent.Type.DELETED, 1L, 4L));
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void resync_ShouldEvictEntriesWhoseVersionDiffersOnPrimary() {
+        cache.put(1L, product(1L, 1L));
+        cache.put(2L, product(2L, 5L));
+        cache.put(3L, product(3L, 2L));
+        when(replicaRoutingContext.onPrimary(any())).thenAnswer(invocation -> {
+            Supplier<?> action = invocation.getArgument(0);
+            return action.get();
+        });
+        when(productRepository.findVersionsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            assertEquals(3, ids.size());
+            return List.of(version(1L, 1L), version(2L, 6L));
+        });
+
+        int evicted = productCacheInvalidator.resync();
+
+        assertEquals(2, evicted);
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNull(cache.get(3L));
+    }
+
+    private static ProductResponse product(Long id, Long version) {
+        return new ProductResponse(id, "Product " + id, null, new BigDecimal("1.00"), 1, version,
+                LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static ProductChangeEvent event(ProductChangeEvent.Type type, Long productId, Long version) {
+        return new ProductChangeEvent(1L, type, productId, version, LocalDateTime.now());
+    }
+
+    private static ProductRepository.ProductVersionView version(Long id, Long version) {
+        return new ProductRepository.ProductVersionView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.ProductChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeFeedServiceTest {
+
+    @Mock
+    private ProductChangeListener productChangeListener;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ProductChangeFeedService productChangeFeedService;
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productChangeFeedService, "bufferSize", 2);
+        ReflectionTestUtils.setField(productChangeFeedService, "replayLimit", 3);
+        ReflectionTestUtils.setField(productChangeFeedService, "senderThreads", 2);
+        ReflectionTestUtils.setField(productChangeFeedService, "sendTimeoutMs", 10_000L);
+        productChangeFeedService = spy(productChangeFeedService);
+        doAnswer(invocation -> {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitters.add(emitter);
+            return emitter;
+        }).when(productChangeFeedService).newEmitter();
+        productChangeFeedService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeFeedService.shutdown();
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayMissedChangesThenGoLive() throws Exception {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10L))).thenReturn(List.of(new long[] {500L, 510L}));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10L), eq(500L), eq(510L), eq(4)))
+                .thenReturn(List.of(event(11), event(12)));
+
+        productChangeFeedService.subscribe(10L);
+        RecordingEmitter emitter = emitters.get(0);
+        emitter.expect(1);
+        // Already replayed, must not be sent twice
+        productChangeFeedService.publish(event(12));
+        // Committed after 12 by a transaction that was open when 11 was logged
+        productChangeFeedService.publish(event(9));
+        assertTrue(emitter.await());
+        emitter.expect(1);
+        productChangeFeedService.publish(event(13));
+
+        assertTrue(emitter.await());
+        assertEquals(List.of("11", "12", "9", "13"), emitter.ids());
+    }
+
+    @Test
+    void subscribe_ShouldAlsoReplayTransactionsOpenAtTheLastEvent() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10L))).thenReturn(List.of(new long[] {500L, 510L}));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10L), eq(500L), eq(510L), eq(4)))
+                .thenReturn(List.of(event(8), event(11)));
+
+        productChangeFeedService.subscribe(10L);
+
+        verify(jdbcTemplate).query(contains("id > ? OR (tx_id >= ? AND tx_id <> ?)"), any(RowMapper.class), eq(10L), eq(500L), eq(510L), eq(4));
+        assertEquals(List.of("8", "11"), emitters.get(0).ids());
+    }
+
+    @Test
+    void subscribe_WhenTooFarBehind_ShouldSendReset() {
+        when(productChangeListener.getLastEventId()).thenReturn(99L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L))).thenReturn(List.of(new long[] {500L, 510L}));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L), eq(500L), eq(510L), eq(4)))
+                .thenReturn(List.of(event(2), event(3), event(4), event(5)));
+
+        productChangeFeedService.subscribe(1L);
+
+        assertEquals(1, emitters.get(0).sent.size());
+        assertTrue(emitters.get(0).sent.get(0).contains("event:" + ProductChangeFeedService.RESET_EVENT));
+    }
+
+    @Test
+    void subscribe_WhenLastEventWasPurged_ShouldSendReset() {
+        when(productChangeListener.getLastEventId()).thenReturn(99L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(1L))).thenReturn(true);
+
+        productChangeFeedService.subscribe(1L);
+
+        assertEquals(1, emitters.get(0).sent.size());
+        assertTrue(emitters.get(0).sent.get(0).contains("event:" + ProductChangeFeedService.RESET_EVENT));
+    }
+
+    @Test
+    void publish_WhenSubscriberBufferIsFull_ShouldDisconnectOnlyThatSubscriber() throws Exception {
+        productChangeFeedService.subscribe(null);
+        productChangeFeedService.subscribe(null);
+        RecordingEmitter slow = emitters.get(0);
+        RecordingEmitter fast = emitters.get(1);
+        slow.block();
+
+        for (int i = 1; i <= 4; i++) {
+            fast.expect(1);
+            productChangeFeedService.publish(event(i));
+            assertTrue(fast.await());
+        }
+
+        assertEquals(List.of("1", "2", "3", "4"), fast.ids());
+        assertEquals(1, productChangeFeedService.getSubscriberCount());
+        assertTrue(slow.completed);
+        slow.unblock();
+    }
+
+    @Test
+    void publish_WhenSubscribersStopReading_ShouldKeepServingTheOthersAndExpireTheStalledSends() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            productChangeFeedService.subscribe(null);
+        }
+        RecordingEmitter live = emitters.get(3);
+        // More stalled writers than core sender threads
+        emitters.subList(0, 3).forEach(RecordingEmitter::block);
+
+        for (int i = 1; i <= 2; i++) {
+            live.expect(1);
+            productChangeFeedService.publish(event(i));
+            assertTrue(live.await());
+        }
+        assertEquals(List.of("1", "2"), live.ids());
+
+        ReflectionTestUtils.setField(productChangeFeedService, "sendTimeoutMs", 0L);
+        Thread.sleep(5);
+        productChangeFeedService.expireStalledSends();
+
+        assertEquals(1, productChangeFeedService.getSubscriberCount());
+        for (RecordingEmitter stalled : emitters.subList(0, 3)) {
+            assertNotNull(stalled.error);
+            stalled.unblock();
+        }
+        assertNull(live.error);
+    }
+
+    private static ProductChangeEvent event(long id) {
+        return new ProductChangeEvent(id, ProductChangeEvent.Type.UPDATED, 1L, id, LocalDateTime.now());
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch expected = new CountDownLatch(0);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            sent.add(text.toString());
+            expected.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error = ex;
+        }
+
+        void expect(int count) {
+            expected = new CountDownLatch(count);
+        }
+
+        boolean await() throws InterruptedException {
+            return expected.await(5, TimeUnit.SECONDS);
+        }
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            gate.countDown();
+        }
+
+        List<String> ids() {
+            List<String> ids = new ArrayList<>();
+            for (String text : sent) {
+                int start = text.indexOf("id:") + 3;
+                ids.add(text.substring(start, text.indexOf('\n', start)));
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.ProductImportResponse;
+import com.example.crudify_server.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.PSQLState;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    private static final String CSV = "name,description,price,quantity\n"
+            + "Widget,\"Small, blue\",9.99,5\n"
+            + ",missing name,1.00,1\n";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PGConnection pgConnection;
+
+    @Mock
+    private CopyManager copyManager;
+
+    @InjectMocks
+    private ProductImportService productImportService;
+
+    private String copied;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Runs the COPY callback against the driver's copy API so the statement and the CSV can be checked
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        lenient().when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        lenient().when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    }
+
+    @Test
+    void importCsv_ShouldStageCopyAndMergeValidRows() throws Exception {
+        when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+            copied = readAll(invocation.getArgument(1));
+            return 2L;
+        });
+        when(jdbcTemplate.update(anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(ProductImportService.MAX_REPORTED_REJECTIONS)))
+                .thenReturn(List.of(2L));
+
+        ProductImportResponse result = productImportService.importCsv(new StringReader(CSV));
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertEquals(List.of(2L), result.getRejectedRows());
+
+        verify(jdbcTemplate).execute(startsWith("CREATE TEMP TABLE product_import_staging"));
+        verify(copyManager).copyIn(eq("COPY product_import_staging (name, description, price, quantity) "
+                + "FROM STDIN WITH (FORMAT csv, HEADER true)"), any(Reader.class));
+        assertEquals(CSV, copied);
+
+        ArgumentCaptor<String> merge = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(merge.capture());
+        assertTrue(merge.getValue().contains("INSERT INTO products (id, name, description, price, quantity, "));
+        assertTrue(merge.getValue().contains("FROM product_import_staging WHERE (name IS NOT NULL"));
+        assertTrue(merge.getValue().contains("nextval('products_id_seq')"));
+        assertTrue(merge.getValue().contains("hi - 49 + n % 50"));
+        assertTrue(merge.getValue().endsWith("ORDER BY row_no"));
+
+        ArgumentCaptor<String> rejected = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(rejected.capture(), eq(Long.class), anyInt());
+        assertTrue(rejected.getValue().contains("IS NOT TRUE ORDER BY row_no LIMIT ?"));
+    }
+
+    @Test
+    void importCsv_WhenCopyRejectsTheData_ShouldThrowBadRequest() throws Exception {
+        when(copyManager.copyIn(anyString(), any(Reader.class)))
+                .thenThrow(new PSQLException("extra data after last expected column", PSQLState.DATA_ERROR));
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> productImportService.importCsv(new StringReader(CSV)));
+
+        assertTrue(e.getMessage().startsWith("Malformed CSV"));
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    @Test
+    void importCsv_WhenCopyFailsOtherwise_ShouldNotBlameTheClient() throws Exception {
+        when(copyManager.copyIn(anyString(), any(Reader.class)))
+                .thenThrow(new PSQLException("connection lost", PSQLState.CONNECTION_FAILURE));
+
+        Exception e = assertThrows(Exception.class, () -> productImportService.importCsv(new StringReader(CSV)));
+        assertFalse(e instanceof BadRequestException);
+    }
+
+    private static String readAll(Reader reader) throws Exception {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[256];
+        int n;
+        while ((n = reader.read(buffer)) >= 0) {
+            text.append(buffer, 0, n);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.dto.ProductRequest;
+import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, ProductService.class})
+class ProductServiceCacheTest {
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private Validator validator;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Product testProduct;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+
+        testProduct = new Product("Test Product", "Test Description", new BigDecimal("99.99"), 10);
+        testProduct.setId(1L);
+        testProduct.setCreatedAt(LocalDateTime.now());
+        testProduct.setUpdatedAt(LocalDateTime.now());
+    }
+
+    @Test
+    void getProductById_ShouldHitRepositoryOnlyOnce() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        productService.getProductById(1L);
+        Optional<ProductResponse> cached = productService.getProductById(1L);
+
+        assertTrue(cached.isPresent());
+        assertEquals("Test Product", cached.get().getName());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getProductById_WhenNotExists_ShouldNotCacheMiss() {
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+        productService.getProductById(2L);
+        productService.getProductById(2L);
+
+        verify(productRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    void updateProduct_ShouldRefreshCachedEntry() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        productService.getProductById(1L);
+
+        productService.updateProduct(1L, new ProductRequest("Renamed", "Test Description", new BigDecimal("99.99"), 10));
+        Optional<ProductResponse> cached = productService.getProductById(1L);
+
+        assertEquals("Renamed", cached.get().getName());
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void getProductVersion_WhenCached_ShouldNotQueryTheDatabase() {
+        testProduct.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findVersionById(2L)).thenReturn(Optional.of(7L));
+        productService.getProductById(1L);
+
+        assertEquals(Optional.of(3L), productService.getProductVersion(1L));
+        assertEquals(Optional.of(7L), productService.getProductVersion(2L));
+        verify(productRepository, never()).findVersionById(1L);
+    }
+
+    @Test
+    void reloadProduct_ShouldReplaceCachedEntry() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        productService.getProductById(1L);
+        testProduct.setName("Changed elsewhere");
+
+        productService.reloadProduct(1L);
+        Optional<ProductResponse> cached = productService.getProductById(1L);
+
+        assertEquals("Changed elsewhere", cached.get().getName());
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteProduct_ShouldEvictCachedEntry() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.deleteProductById(1L)).thenReturn(1);
+        productService.getProductById(1L);
+
+        productService.deleteProduct(1L);
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(1L));
+    }
+}
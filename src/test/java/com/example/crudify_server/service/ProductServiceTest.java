@@ -1,24 +1,47 @@
 package com.example.crudify_server.service;
 
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.dto.BatchDeleteResponse;
+import com.example.crudify_server.dto.BulkProductResponse;
+import com.example.crudify_server.dto.BulkProductResult;
+import com.example.crudify_server.dto.ProductBatchResponse;
+import com.example.crudify_server.dto.ProductPage;
 import com.example.crudify_server.dto.ProductRequest;
 import com.example.crudify_server.dto.ProductResponse;
 import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.exception.BadRequestException;
+import com.example.crudify_server.exception.InsufficientStockException;
+import com.example.crudify_server.exception.InvalidCursorException;
 import com.example.crudify_server.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -28,10 +51,20 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private ProductService productService;
 
     private Product testProduct;
+    private ProductResponse testResponse;
     private ProductRequest testRequest;
 
     @BeforeEach
@@ -41,19 +74,97 @@ class ProductServiceTest {
         testProduct.setCreatedAt(LocalDateTime.now());
         testProduct.setUpdatedAt(LocalDateTime.now());
 
+        testResponse = new ProductResponse(1L, "Test Product", "Test Description", new BigDecimal("99.99"), 10,
+                0L, testProduct.getCreatedAt(), testProduct.getUpdatedAt());
+
         testRequest = new ProductRequest("Test Product", "Test Description", new BigDecimal("99.99"), 10);
     }
 
     @Test
-    void getAllProducts_ShouldReturnListOfProducts() {
-        List<Product> products = Arrays.asList(testProduct);
-        when(productRepository.findAll()).thenReturn(products);
+    void getAllProducts_ShouldReturnFirstPage() {
+        List<ProductResponse> products = Arrays.asList(testResponse);
+        when(productRepository.findPageAfterId(0L, Limit.of(ProductService.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(products);
 
-        List<ProductResponse> result = productService.getAllProducts();
+        ProductPage result = productService.getAllProducts(null, null);
 
-        assertEquals(1, result.size());
-        assertEquals("Test Product", result.get(0).getName());
-        verify(productRepository).findAll();
+        assertEquals(1, result.getItems().size());
+        assertEquals("Test Product", result.getItems().get(0).getName());
+        assertNull(result.getNextCursor());
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void getAllProducts_WhenMoreRows_ShouldReturnCursorToNextPage() {
+        ProductResponse second = new ProductResponse(2L, "Second", "Second Description", new BigDecimal("5.00"), 1,
+                0L, null, null);
+        when(productRepository.findPageAfterId(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testResponse, second));
+
+        ProductPage firstPage = productService.getAllProducts(null, 1);
+
+        assertEquals(1, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+
+        when(productRepository.findPageAfterId(1L, Limit.of(2)))
+                .thenReturn(Arrays.asList(second));
+
+        ProductPage secondPage = productService.getAllProducts(firstPage.getNextCursor(), 1);
+
+        assertEquals("Second", secondPage.getItems().get(0).getName());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void getAllProducts_ShouldCapLimit() {
+        when(productRepository.findPageAfterId(0L, Limit.of(ProductService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        ProductPage result = productService.getAllProducts(null, 1_000_000);
+
+        assertTrue(result.getItems().isEmpty());
+        verify(productRepository).findPageAfterId(0L, Limit.of(ProductService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void getAllProducts_WithMalformedCursor_ShouldThrowInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> productService.getAllProducts("not a cursor!", 10));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void exportProducts_ShouldStreamAndDetachEachProduct() {
+        Product second = new Product("Second", "Second Description", new BigDecimal("5.00"), 1);
+        second.setId(2L);
+        when(productRepository.streamAllOrderedById()).thenReturn(Stream.of(testProduct, second));
+
+        List<ProductResponse> exported = new ArrayList<>();
+        productService.exportProducts(exported::add);
+
+        assertEquals(2, exported.size());
+        assertEquals("Second", exported.get(1).getName());
+        verify(entityManager).detach(testProduct);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    void getProductsByIds_ShouldServeCachedAndLoadRestInOneQueryPreservingOrder() {
+        Cache productCache = mock(Cache.class);
+        ProductResponse cachedResponse = new ProductResponse(3L, "Cached", null, new BigDecimal("1.00"), 1,
+                LocalDateTime.now(), LocalDateTime.now());
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productCache.get(anyLong(), eq(ProductResponse.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0).equals(3L) ? cachedResponse : null);
+        when(productRepository.findAllById(List.of(9L, 1L))).thenReturn(List.of(testProduct));
+
+        ProductBatchResponse result = productService.getProductsByIds(Arrays.asList(9L, 3L, 1L, 3L));
+
+        assertEquals(2, result.getItems().size());
+        assertEquals("Cached", result.getItems().get(0).getName());
+        assertEquals("Test Product", result.getItems().get(1).getName());
+        assertEquals(List.of(9L), result.getMissing());
+        verify(productRepository, times(1)).findAllById(anyIterable());
+        verify(productCache).put(eq(1L), any(ProductResponse.class));
     }
 
     @Test
@@ -87,21 +198,86 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void createProducts_ShouldInsertValidItemsAndRejectInvalidOnes() {
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            product.setId(42L);
+            return product;
+        });
+        ProductRequest invalidRequest = new ProductRequest("", null, new BigDecimal("-1"), 1);
+
+        BulkProductResponse result = productService.createProducts(Arrays.asList(testRequest, invalidRequest, null));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(BulkProductResult.Status.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(42L, result.getResults().get(0).getId());
+        assertEquals(BulkProductResult.Status.REJECTED, result.getResults().get(1).getStatus());
+        assertTrue(result.getResults().get(1).getErrors().containsKey("name"));
+        assertTrue(result.getResults().get(1).getErrors().containsKey("price"));
+        assertEquals(2, result.getResults().get(2).getIndex());
+        verify(productRepository, times(1)).save(any(Product.class));
+    }
+
+    @Test
+    void createProducts_ShouldFlushAndClearPersistenceContextPeriodically() {
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        List<ProductRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            requests.add(testRequest);
+        }
+
+        BulkProductResponse result = productService.createProducts(requests);
+
+        assertEquals(1200, result.getCreated());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void createProducts_WhenTooMany_ShouldThrowBadRequestException() {
+        List<ProductRequest> requests = new ArrayList<>();
+        for (int i = 0; i <= ProductService.MAX_BULK_SIZE; i++) {
+            requests.add(testRequest);
+        }
+
+        assertThrows(BadRequestException.class, () -> productService.createProducts(requests));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     @Test
     void updateProduct_WhenExists_ShouldReturnUpdatedProduct() {
         Product updatedProduct = new Product("Updated Product", "Updated Description", new BigDecimal("199.99"), 20);
         updatedProduct.setId(1L);
+        updatedProduct.setVersion(1L);
         
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
 
         ProductRequest updateRequest = new ProductRequest("Updated Product", "Updated Description", new BigDecimal("199.99"), 20);
         Optional<ProductResponse> result = productService.updateProduct(1L, updateRequest);
 
         assertTrue(result.isPresent());
         assertEquals("Updated Product", result.get().getName());
+        assertEquals(1L, result.get().getVersion());
         verify(productRepository).findById(1L);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void updateProduct_WithStaleVersion_ShouldThrowOptimisticLockingFailure() {
+        testProduct.setVersion(3L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        ProductRequest staleRequest = new ProductRequest("Updated Product", "Updated Description", new BigDecimal("199.99"), 20);
+        staleRequest.setVersion(2L);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> productService.updateProduct(1L, staleRequest));
+        assertEquals("Test Product", testProduct.getName());
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
     }
 
     @Test
@@ -112,40 +288,143 @@ class ProductServiceTest {
 
         assertFalse(result.isPresent());
         verify(productRepository).findById(1L);
-        verify(productRepository, never()).save(any(Product.class));
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    void adjustStock_WhenEnoughStock_ShouldReturnAdjustedProduct() {
+        testProduct.setQuantity(7);
+        when(productRepository.adjustQuantity(1L, -3)).thenReturn(Optional.of(testProduct));
+
+        Optional<ProductResponse> result = productService.adjustStock(1L, -3);
+
+        assertTrue(result.isPresent());
+        assertEquals(7, result.get().getQuantity());
+        verify(productRepository, never()).findQuantityById(anyLong());
+    }
+
+    @Test
+    void adjustStock_WhenInsufficientStock_ShouldThrowInsufficientStockException() {
+        when(productRepository.adjustQuantity(1L, -100)).thenReturn(Optional.empty());
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+
+        assertThrows(InsufficientStockException.class, () -> productService.adjustStock(1L, -100));
+    }
+
+    @Test
+    void adjustStock_WhenResultWouldOverflow_ShouldThrowBadRequest() {
+        when(productRepository.adjustQuantity(1L, Integer.MAX_VALUE)).thenReturn(Optional.empty());
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> productService.adjustStock(1L, Integer.MAX_VALUE));
+        assertTrue(e.getMessage().contains("cannot exceed " + Integer.MAX_VALUE));
+    }
+
+    @Test
+    void adjustStock_WhenNotExists_ShouldReturnEmpty() {
+        when(productRepository.adjustQuantity(1L, 5)).thenReturn(Optional.empty());
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.empty());
+
+        Optional<ProductResponse> result = productService.adjustStock(1L, 5);
+
+        assertFalse(result.isPresent());
     }
 
     @Test
     void deleteProduct_WhenExists_ShouldReturnTrue() {
-        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.deleteProductById(1L)).thenReturn(1);
 
         boolean result = productService.deleteProduct(1L);
 
         assertTrue(result);
-        verify(productRepository).existsById(1L);
-        verify(productRepository).deleteById(1L);
+        verify(productRepository).deleteProductById(1L);
+        verify(productRepository, never()).existsById(anyLong());
+        verify(productRepository, never()).deleteById(anyLong());
     }
 
     @Test
     void deleteProduct_WhenNotExists_ShouldReturnFalse() {
-        when(productRepository.existsById(anyLong())).thenReturn(false);
+        when(productRepository.deleteProductById(anyLong())).thenReturn(0);
 
         boolean result = productService.deleteProduct(1L);
 
         assertFalse(result);
-        verify(productRepository).existsById(1L);
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository).deleteProductById(1L);
+    }
+
+    @Test
+    void deleteProducts_ShouldDeleteDistinctIdsInOneStatementAndEvictCache() {
+        Cache productCache = mock(Cache.class);
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.deleteProductsByIdIn(Set.of(1L, 2L, 3L))).thenReturn(2);
+
+        BatchDeleteResponse result = productService.deleteProducts(Arrays.asList(1L, 2L, 2L, 3L));
+
+        assertEquals(3, result.getRequested());
+        assertEquals(2, result.getDeleted());
+        verify(productRepository, times(1)).deleteProductsByIdIn(anyCollection());
+        verify(productCache).evict(1L);
+        verify(productCache).evict(2L);
+        verify(productCache).evict(3L);
+    }
+
+    @Test
+    void deleteProducts_WithNullIds_ShouldIgnoreThem() {
+        Cache productCache = mock(Cache.class);
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.deleteProductsByIdIn(Set.of(1L, 2L))).thenReturn(2);
+
+        BatchDeleteResponse result = productService.deleteProducts(Arrays.asList(1L, null, 2L));
+
+        assertEquals(2, result.getRequested());
+        verify(productCache, never()).evict(null);
+        verify(productCache).evict(1L);
+        verify(productCache).evict(2L);
+    }
+
+    @Test
+    void deleteProducts_WhenTooMany_ShouldThrowBadRequestException() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i <= ProductService.MAX_BATCH_IDS; i++) {
+            ids.add(i);
+        }
+
+        assertThrows(BadRequestException.class, () -> productService.deleteProducts(ids));
+        verify(productRepository, never()).deleteProductsByIdIn(anyCollection());
     }
 
     @Test
     void searchProductsByName_ShouldReturnMatchingProducts() {
-        List<Product> products = Arrays.asList(testProduct);
-        when(productRepository.findByNameContainingIgnoreCase("Test")).thenReturn(products);
+        List<ProductResponse> products = Arrays.asList(testResponse);
+        when(productRepository.searchByName("%Test%", "Test", Limit.of(ProductService.DEFAULT_PAGE_SIZE)))
+                .thenReturn(products);
 
-        List<ProductResponse> result = productService.searchProductsByName("Test");
+        List<ProductResponse> result = productService.searchProductsByName("Test", null);
 
         assertEquals(1, result.size());
         assertEquals("Test Product", result.get(0).getName());
-        verify(productRepository).findByNameContainingIgnoreCase("Test");
+        verify(productRepository).searchByName("%Test%", "Test", Limit.of(ProductService.DEFAULT_PAGE_SIZE));
+    }
+
+    @Test
+    void searchProductsByName_ShouldEscapeLikeWildcards() {
+        when(productRepository.searchByName("%50\\%\\_off%", "50%_off", Limit.of(10))).thenReturn(List.of());
+
+        List<ProductResponse> result = productService.searchProductsByName("50%_off", 10);
+
+        assertTrue(result.isEmpty());
+        verify(productRepository).searchByName("%50\\%\\_off%", "50%_off", Limit.of(10));
+    }
+
+    @Test
+    void getProductsWithMinimumQuantity_ShouldReturnProjectedRows() {
+        when(productRepository.findProductsWithMinimumQuantity(5)).thenReturn(List.of(testResponse));
+
+        List<ProductResponse> result = productService.getProductsWithMinimumQuantity(5);
+
+        assertEquals(1, result.size());
+        assertEquals(10, result.get(0).getQuantity());
+        verify(productRepository, never()).findAll();
     }
-} 
\ No newline at end of file
+}
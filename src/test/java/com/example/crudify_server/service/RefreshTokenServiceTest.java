@@ -0,0 +1,141 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.dto.AuthResponse;
+import com.example.crudify_server.entity.RefreshToken;
+import com.example.crudify_server.entity.User;
+import com.example.crudify_server.exception.InvalidRefreshTokenException;
+import com.example.crudify_server.repository.RefreshTokenRepository;
+import com.example.crudify_server.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private AccessTokenDenylist accessTokenDenylist;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User testUser;
+    private UUID familyId;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 86_400_000L);
+        testUser = new User("testuser", "test@example.com", "encodedPassword");
+        testUser.setId(1L);
+        familyId = UUID.randomUUID();
+    }
+
+    @Test
+    void issueTokens_ShouldStoreOnlyTheRefreshTokenHash() {
+        when(jwtService.generateToken(eq(testUser), any(UUID.class))).thenReturn("jwt-token");
+        when(jwtService.getExpiration()).thenReturn(900_000L);
+
+        AuthResponse response = refreshTokenService.issueTokens(testUser);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("jwt-token", response.getToken());
+        assertEquals(900L, response.getExpiresIn());
+        assertNotNull(response.getRefreshToken());
+        assertEquals(RefreshTokenService.hash(response.getRefreshToken()), saved.getValue().getTokenHash());
+        assertNotEquals(response.getRefreshToken(), saved.getValue().getTokenHash());
+        assertEquals(1L, saved.getValue().getUserId());
+    }
+
+    @Test
+    void rotate_WithUnusedToken_ShouldIssueNextTokenInSameFamily() {
+        RefreshToken current = storedToken("refresh-token");
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("refresh-token")))
+                .thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRotated(eq(10L), any(LocalDateTime.class))).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(jwtService.generateToken(eq(testUser), any(UUID.class))).thenReturn("jwt-token");
+
+        AuthResponse response = refreshTokenService.rotate("refresh-token");
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(familyId, saved.getValue().getFamilyId());
+        assertNotEquals("refresh-token", response.getRefreshToken());
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    void rotate_WithAlreadyRotatedToken_ShouldRevokeFamilyAndItsAccessTokens() {
+        RefreshToken current = storedToken("refresh-token");
+        UUID liveAccessToken = UUID.randomUUID();
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("refresh-token")))
+                .thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRotated(eq(10L), any(LocalDateTime.class))).thenReturn(0);
+        when(refreshTokenRepository.findLiveAccessTokenIdsByFamilyId(eq(familyId), any(LocalDateTime.class)))
+                .thenReturn(List.of(liveAccessToken));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("refresh-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq(familyId), any(LocalDateTime.class));
+        verify(accessTokenDenylist).revoke(List.of(liveAccessToken));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void rotate_WithExpiredOrUnknownToken_ShouldThrow() {
+        RefreshToken expired = storedToken("expired-token");
+        expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("expired-token")))
+                .thenReturn(Optional.of(expired));
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.hash("unknown-token")))
+                .thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("expired-token"));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown-token"));
+
+        verify(refreshTokenRepository, never()).markRotated(any(), any());
+    }
+
+    @Test
+    void revoke_WithUnknownToken_ShouldDoNothing() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        refreshTokenService.revoke("unknown-token");
+
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+        verifyNoInteractions(accessTokenDenylist);
+    }
+
+    private RefreshToken storedToken(String rawToken) {
+        RefreshToken token = new RefreshToken(1L, RefreshTokenService.hash(rawToken), familyId, UUID.randomUUID(),
+                LocalDateTime.now().plusMinutes(15), LocalDateTime.now().plusDays(1));
+        token.setId(10L);
+        return token;
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.crudify_server.service;
+
+import com.example.crudify_server.config.CacheConfig;
+import com.example.crudify_server.config.ReplicaRoutingContext;
+import com.example.crudify_server.dto.ProductResponse;
+import com.example.crudify_server.entity.Product;
+import com.example.crudify_server.exception.BadRequestException;
+import com.example.crudify_server.exception.InsufficientStockException;
+import com.example.crudify_server.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockWriteBehindServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache productCache;
+
+    @Mock
+    private Connection lockConnection;
+
+    @Spy
+    private ReplicaRoutingContext replicaRoutingContext = new ReplicaRoutingContext();
+
+    @InjectMocks
+    private StockWriteBehindService stockWriteBehindService;
+
+    private ProductResponse testProduct;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(stockWriteBehindService, "enabled", true);
+        ReflectionTestUtils.setField(stockWriteBehindService, "lockConnection", lockConnection);
+        ReflectionTestUtils.setField(stockWriteBehindService, "lockHeld", true);
+        lenient().when(lockConnection.isValid(anyInt())).thenReturn(true);
+        testProduct = new ProductResponse(1L, "Test Product", "Test Description",
+                new BigDecimal("99.99"), 10, 0L, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Test
+    void adjust_ShouldCoalesceDeltasIntoSingleUpdatePerFlush() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.applyQuantityDelta(1L, -4)).thenReturn(Optional.of(persisted(6, 1L)));
+
+        stockWriteBehindService.adjust(1L, -1);
+        stockWriteBehindService.adjust(1L, -2);
+        Optional<ProductResponse> result = stockWriteBehindService.adjust(1L, -1);
+
+        assertEquals(6, result.get().getQuantity());
+        verify(productRepository, never()).applyQuantityDelta(anyLong(), anyInt());
+
+        stockWriteBehindService.flush();
+
+        verify(productRepository, times(1)).applyQuantityDelta(1L, -4);
+        verify(productRepository, times(1)).findQuantityById(1L);
+    }
+
+    @Test
+    void adjust_ShouldSeedFromThePrimaryNotTheCache() {
+        ProductResponse staleCached = new ProductResponse(1L, "Test Product", "Test Description",
+                new BigDecimal("99.99"), 50, 0L, LocalDateTime.now(), LocalDateTime.now());
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(staleCached));
+
+        assertEquals(8, stockWriteBehindService.adjust(1L, -2).get().getQuantity());
+        assertThrows(InsufficientStockException.class, () -> stockWriteBehindService.adjust(1L, -9));
+        verify(replicaRoutingContext).onPrimary(any());
+    }
+
+    @Test
+    void adjust_WithoutTheLock_ShouldGoStraightToTheDatabase() {
+        ReflectionTestUtils.setField(stockWriteBehindService, "lockHeld", false);
+        when(productService.adjustStock(1L, -2)).thenReturn(Optional.of(testProduct));
+
+        assertEquals(Optional.of(testProduct), stockWriteBehindService.adjust(1L, -2));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void adjust_WhenInsufficientStock_ShouldRejectWithoutBuffering() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+
+        stockWriteBehindService.adjust(1L, -8);
+
+        assertThrows(InsufficientStockException.class, () -> stockWriteBehindService.adjust(1L, -3));
+        assertEquals(2, stockWriteBehindService.applyPending(testProduct).getQuantity());
+    }
+
+    @Test
+    void adjust_WhenResultWouldOverflow_ShouldRejectWithoutBuffering() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(Integer.MAX_VALUE - 1));
+
+        assertThrows(BadRequestException.class, () -> stockWriteBehindService.adjust(1L, 2));
+        assertEquals(Integer.MAX_VALUE - 1, stockWriteBehindService.applyPending(testProduct).getQuantity());
+    }
+
+    @Test
+    void adjust_WhenProductNotExists_ShouldReturnEmpty() {
+        when(productRepository.findQuantityById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(stockWriteBehindService.adjust(2L, 1).isEmpty());
+    }
+
+    @Test
+    void applyPending_ShouldOverlayUnflushedDeltas() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+
+        stockWriteBehindService.adjust(1L, 5);
+
+        assertEquals(15, stockWriteBehindService.applyPending(testProduct).getQuantity());
+        assertEquals(10, testProduct.getQuantity());
+    }
+
+    @Test
+    void flush_ShouldUpdateTheCachedQuantityInsteadOfEvicting() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productCache.get(1L, ProductResponse.class)).thenReturn(testProduct);
+        when(productRepository.applyQuantityDelta(1L, -3)).thenReturn(Optional.of(persisted(7, 1L)));
+
+        stockWriteBehindService.adjust(1L, -3);
+        stockWriteBehindService.flush();
+
+        ArgumentCaptor<ProductResponse> cached = ArgumentCaptor.forClass(ProductResponse.class);
+        verify(productCache).put(eq(1L), cached.capture());
+        verify(productCache, never()).evict(any());
+        assertEquals(7, cached.getValue().getQuantity());
+        assertEquals(1L, cached.getValue().getVersion());
+        assertEquals("Test Product", cached.getValue().getName());
+    }
+
+    @Test
+    void flush_WhenDatabaseRefusesTheDelta_ShouldDropItAndReseed() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10), Optional.of(1), Optional.of(1));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.applyQuantityDelta(1L, -5)).thenReturn(Optional.empty());
+
+        stockWriteBehindService.adjust(1L, -5);
+        stockWriteBehindService.flush();
+
+        assertEquals(10, stockWriteBehindService.applyPending(testProduct).getQuantity());
+        assertThrows(InsufficientStockException.class, () -> stockWriteBehindService.adjust(1L, -2));
+        verify(productCache, never()).put(any(), any());
+    }
+
+    @Test
+    void flush_WhenUpdateFails_ShouldRetryOnNextFlush() {
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.applyQuantityDelta(1L, 3))
+                .thenThrow(new RuntimeException("connection reset"))
+                .thenReturn(Optional.of(persisted(13, 1L)));
+
+        stockWriteBehindService.adjust(1L, 3);
+        stockWriteBehindService.flush();
+        stockWriteBehindService.flush();
+
+        verify(productRepository, times(2)).applyQuantityDelta(1L, 3);
+        assertEquals(13, stockWriteBehindService.applyPending(testProduct).getQuantity());
+    }
+
+    @Test
+    void init_WhenAnotherNodeHoldsTheLock_ShouldFallBackAndTakeOverOnceFree() throws Exception {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(lockConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(false, true);
+        when(productService.adjustStock(1L, -2)).thenReturn(Optional.of(testProduct));
+        ReflectionTestUtils.setField(stockWriteBehindService, "lockHeld", false);
+
+        ReflectionTestUtils.invokeMethod(stockWriteBehindService, "init");
+
+        assertEquals(Optional.of(testProduct), stockWriteBehindService.adjust(1L, -2));
+        verify(productService).adjustStock(1L, -2);
+
+        ReflectionTestUtils.setField(stockWriteBehindService, "nextLockAttemptMillis", 0L);
+        stockWriteBehindService.flush();
+
+        assertTrue((Boolean) ReflectionTestUtils.getField(stockWriteBehindService, "lockHeld"));
+        verify(statement, times(2)).executeQuery(anyString());
+    }
+
+    @Test
+    void flushOnShutdown_DuringAScheduledFlush_ShouldWaitAndKeepAFailedDelta() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(testProduct));
+        when(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE)).thenReturn(productCache);
+        when(productRepository.applyQuantityDelta(1L, -3))
+                .thenAnswer(invocation -> {
+                    writing.countDown();
+                    fail.await();
+                    throw new RuntimeException("connection reset");
+                })
+                .thenReturn(Optional.of(persisted(7, 1L)));
+        stockWriteBehindService.adjust(1L, -3);
+
+        Thread scheduled = new Thread(stockWriteBehindService::flush);
+        scheduled.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Thread shutdown = new Thread(stockWriteBehindService::flushOnShutdown);
+        shutdown.start();
+        shutdown.join(200);
+        assertTrue(shutdown.isAlive());
+
+        fail.countDown();
+        scheduled.join(5000);
+        shutdown.join(5000);
+
+        verify(productRepository, times(2)).applyQuantityDelta(1L, -3);
+        verify(lockConnection).close();
+    }
+
+    @Test
+    void init_WithReadReplicas_ShouldRefuseToStart() {
+        ReflectionTestUtils.setField(replicaRoutingContext, "enabled", true);
+
+        assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(stockWriteBehindService, "init"));
+    }
+
+    private static Product persisted(int quantity, long version) {
+        Product product = new Product();
+        product.setId(1L);
+        product.setQuantity(quantity);
+        product.setVersion(version);
+        product.setUpdatedAt(LocalDateTime.now());
+        return product;
+    }
+}
@@ -1,27 +1,37 @@
 package com.example.crudify_server.service;
 
+import com.example.crudify_server.config.ReplicaRoutingContext;
 import com.example.crudify_server.dto.AuthRequest;
 import com.example.crudify_server.dto.AuthResponse;
 import com.example.crudify_server.dto.RegisterRequest;
 import com.example.crudify_server.entity.User;
+import com.example.crudify_server.exception.DuplicateUserException;
 import com.example.crudify_server.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,11 +44,17 @@ class UserServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
 
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private ReplicaRoutingContext replicaRoutingContext;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private UserService userService;
 
@@ -48,6 +64,7 @@ class UserServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.invokeMethod(userService, "init");
         validRegisterRequest = new RegisterRequest("testuser", "test@example.com", "password123");
         validAuthRequest = new AuthRequest("testuser", "password123");
         
@@ -57,53 +74,59 @@ class UserServiceTest {
 
     @Test
     void register_WithValidRequest_ShouldCreateUserAndReturnAuthResponse() {
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(validRegisterRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
-        when(jwtService.generateToken(any(User.class))).thenReturn("jwt-token");
+        when(userRepository.insertIfAbsent(eq("testuser"), eq("test@example.com"), eq("encodedPassword"),
+                eq("USER"), any(LocalDateTime.class))).thenReturn(Optional.of(1L));
+        when(refreshTokenService.issueTokens(any(User.class)))
+                .thenAnswer(invocation -> new AuthResponse("jwt-token", invocation.<User>getArgument(0)));
 
         AuthResponse result = userService.register(validRegisterRequest);
 
         assertNotNull(result);
         assertEquals("jwt-token", result.getToken());
+        assertEquals(1L, result.getId());
         assertEquals("testuser", result.getUsername());
         assertEquals("test@example.com", result.getEmail());
 
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository).existsByEmail("test@example.com");
         verify(passwordEncoder).encode("password123");
-        verify(userRepository).save(any(User.class));
-        verify(jwtService).generateToken(any(User.class));
+        verify(userRepository, never()).existsByUsername(anyString());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository, never()).save(any(User.class));
+        verify(refreshTokenService).issueTokens(any(User.class));
     }
 
     @Test
-    void register_WithExistingUsername_ShouldThrowRuntimeException() {
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(true);
+    void register_WithExistingUsername_ShouldThrowDuplicateUserException() {
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.insertIfAbsent(anyString(), anyString(), anyString(), anyString(), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+        when(replicaRoutingContext.onPrimary(any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(0).get());
+        when(userRepository.existsByUsername("testuser")).thenReturn(true);
 
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        DuplicateUserException exception = assertThrows(DuplicateUserException.class,
             () -> userService.register(validRegisterRequest));
         
+        assertEquals(DuplicateUserException.Field.USERNAME, exception.getField());
         assertEquals("Username is already taken!", exception.getMessage());
-
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository, never()).existsByEmail(anyString());
-        verify(userRepository, never()).save(any(User.class));
+        verify(refreshTokenService, never()).issueTokens(any(User.class));
     }
 
     @Test
-    void register_WithExistingEmail_ShouldThrowRuntimeException() {
-        when(userRepository.existsByUsername(validRegisterRequest.getUsername())).thenReturn(false);
-        when(userRepository.existsByEmail(validRegisterRequest.getEmail())).thenReturn(true);
+    void register_WithExistingEmail_ShouldThrowDuplicateUserException() {
+        when(passwordEncoder.encode(validRegisterRequest.getPassword())).thenReturn("encodedPassword");
+        when(userRepository.insertIfAbsent(anyString(), anyString(), anyString(), anyString(), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+        when(replicaRoutingContext.onPrimary(any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(0).get());
+        when(userRepository.existsByUsername("testuser")).thenReturn(false);
 
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        DuplicateUserException exception = assertThrows(DuplicateUserException.class,
             () -> userService.register(validRegisterRequest));
         
+        assertEquals(DuplicateUserException.Field.EMAIL, exception.getField());
         assertEquals("Email is already in use!", exception.getMessage());
-
-        verify(userRepository).existsByUsername("testuser");
-        verify(userRepository).existsByEmail("test@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(refreshTokenService, never()).issueTokens(any(User.class));
     }
 
     @Test
@@ -112,7 +135,7 @@ class UserServiceTest {
             .thenReturn(null);
         when(userRepository.findByUsername(validAuthRequest.getUsername()))
             .thenReturn(Optional.of(testUser));
-        when(jwtService.generateToken(testUser)).thenReturn("jwt-token");
+        when(refreshTokenService.issueTokens(testUser)).thenReturn(new AuthResponse("jwt-token", testUser));
 
         AuthResponse result = userService.authenticate(validAuthRequest);
 
@@ -122,7 +145,7 @@ class UserServiceTest {
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByUsername("testuser");
-        verify(jwtService).generateToken(testUser);
+        verify(refreshTokenService).issueTokens(testUser);
     }
 
     @Test
@@ -135,7 +158,7 @@ class UserServiceTest {
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository, never()).findByUsername(anyString());
-        verify(jwtService, never()).generateToken(any(User.class));
+        verify(refreshTokenService, never()).issueTokens(any(User.class));
     }
 
     @Test
@@ -152,7 +175,7 @@ class UserServiceTest {
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         verify(userRepository).findByUsername("testuser");
-        verify(jwtService, never()).generateToken(any(User.class));
+        verify(refreshTokenService, never()).issueTokens(any(User.class));
     }
 
     @Test
@@ -176,4 +199,34 @@ class UserServiceTest {
         assertEquals("User not found: nonexistent", exception.getMessage());
         verify(userRepository).findByUsername("nonexistent");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void loadUserByUsername_WhenReplicaMisses_ShouldRetryOnPrimary() {
+        when(replicaRoutingContext.isEnabled()).thenReturn(true);
+        when(replicaRoutingContext.onPrimary(any())).thenAnswer(invocation -> {
+            Supplier<?> action = invocation.getArgument(0);
+            return action.get();
+        });
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(testUser));
+
+        var userDetails = userService.loadUserByUsername("testuser");
+
+        assertEquals("testuser", userDetails.getUsername());
+        verify(replicaRoutingContext).onPrimary(any());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    void updatePassword_ShouldPersistNewHashAndReturnUpdatedUser() {
+        when(userRepository.updatePassword(eq("testuser"), eq("{bcrypt}rehashed"), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        UserDetails updated = userService.updatePassword(testUser, "{bcrypt}rehashed");
+
+        assertSame(testUser, updated);
+        assertEquals("{bcrypt}rehashed", updated.getPassword());
+        verify(userRepository).updatePassword(eq("testuser"), eq("{bcrypt}rehashed"), any(LocalDateTime.class));
+    }
+}